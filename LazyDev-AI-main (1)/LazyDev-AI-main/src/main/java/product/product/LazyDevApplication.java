@@ -4,12 +4,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import product.product.batch.BulkGenerator;
+import product.product.classpathResolver.ClasspathResolver;
 import product.product.codeAnalyzer.CodeAnalyzer;
 import product.product.configuration.Config;
+import product.product.coverageAnalyzer.CoverageAnalyzer;
 import product.product.dto.MethodMetaData;
+import product.product.sourceWatcher.SourceWatcher;
 import product.product.testGenerator.TestGenerator;
 import product.product.testValidator.TestValidator;
 
+import java.util.Arrays;
 import java.util.List;
 
 /*
@@ -40,6 +45,18 @@ public class LazyDevApplication implements CommandLineRunner {
 	private final TestValidator testValidator;
 	//TestValidator: runs Maven tests for validation.
 
+	private final CoverageAnalyzer coverageAnalyzer;
+	//CoverageAnalyzer reads JaCoCo coverage so only poorly covered methods get tests generated.
+
+	private final ClasspathResolver classpathResolver;
+	//ClasspathResolver resolves (and caches) the project's classpath so analysis can resolve dependency types.
+
+	private final BulkGenerator bulkGenerator;
+	//BulkGenerator submits all prompts as one batch job for nightly runs (--bulk).
+
+	private final SourceWatcher sourceWatcher;
+	//SourceWatcher regenerates tests for changed methods while the developer edits code (watch).
+
 	private final Config config;
 	//At last this Config holds configuration like source,test paths.. etc.
 
@@ -48,10 +65,18 @@ public class LazyDevApplication implements CommandLineRunner {
 	public LazyDevApplication(CodeAnalyzer codeAnalyzer,
 							  TestGenerator testGenerator,
 							  TestValidator testValidator,
+							  CoverageAnalyzer coverageAnalyzer,
+							  ClasspathResolver classpathResolver,
+							  BulkGenerator bulkGenerator,
+							  SourceWatcher sourceWatcher,
 							  Config config) {
 		this.codeAnalyzer = codeAnalyzer;
 		this.testGenerator = testGenerator;
 		this.testValidator = testValidator;
+		this.coverageAnalyzer = coverageAnalyzer;
+		this.classpathResolver = classpathResolver;
+		this.bulkGenerator = bulkGenerator;
+		this.sourceWatcher = sourceWatcher;
 		this.config = config;
 	}
 
@@ -68,15 +93,18 @@ public class LazyDevApplication implements CommandLineRunner {
 
 		String command = args[0].trim().toLowerCase(); // Normalize command
 		String sourceFolder = args[1].trim(); // Normalize path
+		List<String> flags = Arrays.asList(args).subList(2, args.length); // Optional flags like --resume
 
 		//Dynamically calculate project root from provided source path
 		String projectRootPath = sourceFolder.replace("/src/main/java", "").replace("\\src\\main\\java", "");
 
 		//Command dispatcher
 		switch (command) {  //This switch checks what the user wants to do and runs the appropriate process.
-			case "generate-tests" -> handleGenerateTests(sourceFolder, projectRootPath);
-			case "analyze-only" -> handleAnalyzeOnly(sourceFolder);
+			case "generate-tests" -> handleGenerateTests(sourceFolder, projectRootPath,
+					flags.contains("--resume"), flags.contains("--bulk"));
+			case "analyze-only" -> handleAnalyzeOnly(sourceFolder, projectRootPath);
 			case "validate-only" -> handleValidateOnly(projectRootPath);
+			case "watch" -> handleWatch(sourceFolder, projectRootPath);
 			default -> printHelp(); // Fallback to help if unknown command
 		}
 	}
@@ -84,11 +112,13 @@ public class LazyDevApplication implements CommandLineRunner {
 
 
 	//Full pipeline: Analyze -> Generate tests -> Validate (mvn test).
+	//resume -> continue a killed run from its journal instead of starting over.
+	//bulk -> submit all prompts as one batch job instead of one AI call per method.
 
-	private void handleGenerateTests(String sourceFolder, String projectRootPath) {
+	private void handleGenerateTests(String sourceFolder, String projectRootPath, boolean resume, boolean bulk) {
 		try {
 			System.out.println(" Starting analysis of source code from: " + sourceFolder);
-			List<MethodMetaData> metaDataList = codeAnalyzer.analyzeSource(sourceFolder);
+			List<MethodMetaData> metaDataList = codeAnalyzer.analyzeSource(sourceFolder, classpathResolver.resolve(projectRootPath));
 
 			if (metaDataList.isEmpty()) {
 				System.out.println(" No methods found to generate tests for.");
@@ -97,16 +127,38 @@ public class LazyDevApplication implements CommandLineRunner {
 
 			System.out.println(" Analysis completed. Methods found: " + metaDataList.size());
 
+			// Skip methods the existing suite already covers (lowest-covered first)
+			List<MethodMetaData> methodsToGenerate = coverageAnalyzer.selectMethodsToGenerate(metaDataList, projectRootPath);
+			if (methodsToGenerate.isEmpty()) {
+				System.out.println(" All methods are already above the coverage threshold. Nothing to generate.");
+				return;
+			}
+			System.out.println(" Methods selected for generation: " + methodsToGenerate.size());
+
 			// Generate tests
-			System.out.println("  Generating JUnit test cases...");
-			testGenerator.generateTests(metaDataList, projectRootPath);
+			if (bulk) {
+				System.out.println("  Generating JUnit test cases as a batch job (" + config.getBatchBackend() + ")...");
+				if (!bulkGenerator.run(methodsToGenerate, projectRootPath)) {
+					System.out.println(" No test classes written in this run (see log for the batch job state).");
+					return;
+				}
+			} else {
+				System.out.println("  Generating JUnit test cases...");
+				testGenerator.generateTests(methodsToGenerate, projectRootPath, resume);
+			}
 			System.out.println(" Test cases generated and saved to: " + config.getTestPath());
 
-			// Run tests
+			// Run tests (with JaCoCo when the coverage gain has to be measured)
+			boolean measureCoverage = config.isCoverageEnabled() && config.isCoverageMeasureImprovement();
 			System.out.println(" Running generated tests via Maven...");
-			testValidator.runTests(projectRootPath);
+			boolean testsPassed = testValidator.runTests(projectRootPath, measureCoverage);
 			System.out.println(" Test execution and validation completed.");
 
+			if (measureCoverage && testsPassed) {
+				double averageGain = coverageAnalyzer.reportImprovement(methodsToGenerate, projectRootPath);
+				System.out.println(" Average coverage gain per generated method: " + Math.round(averageGain * 100) + "%");
+			}
+
 		} catch (Exception e) {
 			System.err.println(" Error during pipeline execution: " + e.getMessage());
 			e.printStackTrace();
@@ -117,10 +169,10 @@ public class LazyDevApplication implements CommandLineRunner {
 	  - Runs only analysis and prints method metadata.
       - Good for inspecting what will be tested.
 	 */
-	private void handleAnalyzeOnly(String sourceFolder) {
+	private void handleAnalyzeOnly(String sourceFolder, String projectRootPath) {
 		try {
 			System.out.println(" Starting analysis of source code only...");
-			List<MethodMetaData> metaDataList = codeAnalyzer.analyzeSource(sourceFolder);
+			List<MethodMetaData> metaDataList = codeAnalyzer.analyzeSource(sourceFolder, classpathResolver.resolve(projectRootPath));
 
 			if (metaDataList.isEmpty()) {
 				System.out.println(" No methods found during analysis.");
@@ -153,6 +205,22 @@ public class LazyDevApplication implements CommandLineRunner {
 
 
 
+	/* Watch the source folder and keep the generated tests in sync (runs until stopped).
+	   - Only methods whose signature or body changed get their tests regenerated.
+	   - Only the affected test classes are run afterwards.
+	 */
+	private void handleWatch(String sourceFolder, String projectRootPath) {
+		try {
+			System.out.println(" Watching source folder for changes (Ctrl+C to stop): " + sourceFolder);
+			sourceWatcher.watch(sourceFolder, projectRootPath);
+		} catch (Exception e) {
+			System.err.println(" Error in watch mode: " + e.getMessage());
+			e.printStackTrace();
+		}
+	}
+
+
+
 	//CLI Usage help, detailed command usage with examples and configuration notes.
 	private void printHelp() {
 		System.out.println("""
@@ -161,16 +229,21 @@ public class LazyDevApplication implements CommandLineRunner {
                 Usage:
                 --------------------------------------
                 lazydev generate-tests <source_folder>  -> Analyze code, generate tests, and run them
+                lazydev generate-tests <source_folder> --resume -> Continue an interrupted run from its journal
+                lazydev generate-tests <source_folder> --bulk   -> Submit all prompts as one batch job (nightly runs)
                 lazydev analyze-only <source_folder>   -> Analyze code without generating tests
                 lazydev validate-only <project_root>   -> Only run existing Maven tests
+                lazydev watch <source_folder>          -> Regenerate and run tests for changed methods on every save
 
                 Example:
                 java -jar lazydev.jar generate-tests C:/MyProject/src/main/java
+                java -jar lazydev.jar generate-tests C:/MyProject/src/main/java --lazydev.max-run-minutes=20 --lazydev.max-tokens=2000000
 
                 You can configure paths in application.properties:
                 lazydev.source-path=src/main/java
                 lazydev.test-path=src/test/java
                 lazydev.project-root-path=./
+                lazydev.coverage-threshold=0.8         -> Only generate for methods below this JaCoCo coverage
                 --------------------------------------
                 """);
 	}
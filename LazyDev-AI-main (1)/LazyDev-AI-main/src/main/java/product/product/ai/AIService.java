@@ -1,16 +1,23 @@
 package product.product.ai;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.ChatResponse;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.stereotype.Service;
+import product.product.configuration.Config;
 import product.product.dto.MethodMetaData;
 import product.product.utility.CodeSanitizer;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 //AI Service for generating JUnit test methods using OpenAI.
 //It is a core business logic class that communicates with an AI model (via Spring AI's ChatClient) to generate JUnit test methods automatically for a given piece of code (methods).
@@ -19,6 +26,11 @@ public class AIService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AIService.class);
 
+    //Prefix of the placeholder returned when the AI call failed (such results are not journaled, so --resume retries them).
+    public static final String FAILED_TEST_PREFIX = "// Failed to generate test for method: ";
+
+    private static final int LATENCY_WINDOW = 200; //recent calls the hedging percentile is computed over
+
     /*
     - Part of Spring AI.
     - Handles communication with AI models (like OpenAI, Azure AI, etc.).
@@ -34,10 +46,31 @@ public class AIService {
      */
     private final CodeSanitizer codeSanitizer;
 
+    //Total tokens spent by this service (reported by the model, estimated when the response has no usage data).
+    private final AtomicLong tokensUsed = new AtomicLong();
+
+    /*
+     - Request hedging (lazydev.hedge-enabled): a call slower than lazydev.hedge-percentile of the recent calls
+       gets a duplicate request, the first answer wins. The other one still runs to completion (the provider bills it
+       anyway) and its tokens are counted when it returns.
+     - At most lazydev.hedge-max-rate of all requests are hedged, so the spend stays bounded.
+     */
+    private final Config config;
+    private final LatencyTracker latencyTracker = new LatencyTracker(LATENCY_WINDOW);
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "lazydev-ai-call");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedgesIssued = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
 
-    public AIService(ChatClient chatClient, CodeSanitizer codeSanitizer) {
+    public AIService(ChatClient chatClient, CodeSanitizer codeSanitizer, Config config) {
         this.chatClient = chatClient;
         this.codeSanitizer = codeSanitizer;
+        this.config = config;
     }
 
 
@@ -51,7 +84,8 @@ public class AIService {
 
             // Send prompt to AI
             Prompt aiPrompt = new Prompt(List.of(new UserMessage(prompt)));
-            Message response = chatClient.call(aiPrompt).getResult().getOutput();
+            ChatResponse chatResponse = callModel(aiPrompt, prompt, methodMetaData);
+            Message response = chatResponse.getResult().getOutput();
 
             // Clean AI response using CodeSanitizer
             String cleanedResponse = codeSanitizer.cleanAICode(response.getContent());
@@ -61,12 +95,140 @@ public class AIService {
 
         } catch (Exception e) {
             LOGGER.error(" Error generating test with AI for method {}: {}", methodMetaData.getMethodName(), e.getMessage(), e);
-            return "// Failed to generate test for method: " + methodMetaData.getMethodName();
+            return FAILED_TEST_PREFIX + methodMetaData.getMethodName();
+        }
+    }
+
+    //returns the total tokens spent so far (used by the token budget of the scheduler).
+    public long getTokensUsed() {
+        return tokensUsed.get();
+    }
+
+    //Number of duplicate requests sent for slow calls.
+    public long getHedgesIssued() {
+        return hedgesIssued.get();
+    }
+
+    //Number of hedged calls where the duplicate answered first.
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+
+    /*
+     - Sends the prompt to the model, hedged if enabled:
+       waits up to the configured latency percentile for the call, then (within the hedge rate cap) sends the same
+       prompt again. The first successful answer is returned, if one attempt fails the other one is still awaited.
+     - Every attempt records its own token usage when it returns. The losing one isn't cancelled: interrupting the
+       thread doesn't stop the HTTP call the provider bills for, so it finishes in the background and is counted then.
+     */
+    private ChatResponse callModel(Prompt aiPrompt, String prompt, MethodMetaData methodMetaData) throws Exception {
+        requests.incrementAndGet();
+        long start = System.nanoTime();
+        if (!config.isHedgeEnabled()) {
+            ChatResponse chatResponse = chatClient.call(aiPrompt);
+            latencyTracker.record(elapsedMillis(start));
+            recordTokenUsage(chatResponse, prompt);
+            return chatResponse;
+        }
+
+        CompletionService<TimedResponse> completionService = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<TimedResponse>> attempts = new ArrayList<>();
+        attempts.add(completionService.submit(() -> timedCall(aiPrompt, prompt, false)));
+        long hedgeDelay = latencyTracker.percentile(config.getHedgePercentile(), config.getHedgeMinSamples());
+        Future<TimedResponse> done = hedgeDelay >= 0
+                ? completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS)
+                : completionService.take();
+
+        if (done == null && tryAcquireHedge()) {
+            LOGGER.info(" AI call for {} is slower than p{} ({} ms), sending a hedged request.",
+                    methodMetaData.getMethodName(), Math.round(config.getHedgePercentile() * 100), hedgeDelay);
+            attempts.add(completionService.submit(() -> timedCall(aiPrompt, prompt, true)));
+        }
+
+        Exception failure = null;
+        for (int pending = attempts.size(); pending > 0; pending--) {
+            if (done == null) {
+                done = completionService.take();
+            }
+            try {
+                TimedResponse winner = done.get();
+                latencyTracker.record(winner.latencyMillis());
+                if (winner.hedge()) {
+                    // Keep the original's (censored) latency visible to the percentile
+                    hedgesWon.incrementAndGet();
+                    latencyTracker.record(elapsedMillis(start));
+                    LOGGER.info(" Hedged request won for {}.", methodMetaData.getMethodName());
+                }
+                return winner.response();
+
+            } catch (ExecutionException e) {
+                failure = e.getCause() instanceof Exception cause ? cause : e;
+                done = null;
+            }
+        }
+        throw failure;
+    }
+
+
+    //One attempt, its tokens are recorded as soon as it returns (also if it lost the race).
+    private TimedResponse timedCall(Prompt aiPrompt, String prompt, boolean hedge) {
+        long start = System.nanoTime();
+        ChatResponse chatResponse = chatClient.call(aiPrompt);
+        long latencyMillis = elapsedMillis(start);
+        recordTokenUsage(chatResponse, prompt);
+        return new TimedResponse(chatResponse, latencyMillis, hedge);
+    }
+
+
+    //true if one more hedge stays within lazydev.hedge-max-rate of all requests so far.
+    private boolean tryAcquireHedge() {
+        long issued = hedgesIssued.get();
+        while (issued + 1 <= config.getHedgeMaxRate() * requests.get()) {
+            if (hedgesIssued.compareAndSet(issued, issued + 1)) {
+                return true;
+            }
+            issued = hedgesIssued.get();
+        }
+        return false;
+    }
+
+
+    private long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    //Adds the tokens of one call, falls back to ~4 characters per token if the provider sent no usage.
+    private void recordTokenUsage(ChatResponse chatResponse, String prompt) {
+        long tokens = 0;
+        String content = null;
+        try {
+            Usage usage = chatResponse.getMetadata().getUsage();
+            if (usage != null && usage.getTotalTokens() != null) {
+                tokens = usage.getTotalTokens();
+            }
+            content = chatResponse.getResult().getOutput().getContent();
+        } catch (RuntimeException e) {
+            LOGGER.debug(" No token usage in AI response: {}", e.getMessage());
+        }
+        if (tokens <= 0) {
+            tokens = (prompt.length() + (content != null ? content.length() : 0)) / 4;
         }
+        tokensUsed.addAndGet(tokens);
+    }
+
+    //Response of one attempt, with its own latency and whether it was the hedged duplicate.
+    private record TimedResponse(ChatResponse response, long latencyMillis, boolean hedge) {
     }
 
-    //A natural language prompt for the AI to generate JUnit test.
-    private String buildPrompt(MethodMetaData metaData) {
+    //A natural language prompt for the AI to generate JUnit test (also serialized as-is by bulk mode).
+    public String buildPrompt(MethodMetaData metaData) {
         return """
                 You are a senior Java developer. Write a FULL JUnit 5 test method for this method. 
                 - Handle all important and edge cases.
@@ -104,7 +266,7 @@ Step-by-Step Working of this Class :
 
 Step 1: Build a detailed prompt.
 
-Step 2: Send prompt to AI via ChatClient.
+Step 2: Send prompt to AI via ChatClient (with a hedged duplicate request if the call is unusually slow).
 
 Step 3: Receive AI-generated test code as response.
 
@@ -0,0 +1,44 @@
+package product.product.ai;
+
+import java.util.Arrays;
+
+/*
+
+Role of this class :
+- Keeps the latencies of the most recent AI calls (sliding window) so AIService can decide when a
+  request is slow enough to be hedged.
+- Thread-safe, generation runs on several threads.
+ */
+public class LatencyTracker {
+
+    private final long[] samples; //ring buffer, in milliseconds
+    private int next;
+    private int count;
+
+
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[Math.max(1, windowSize)];
+    }
+
+
+    public synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+
+    /*
+     - returns the latency (ms) below which the given fraction of the recorded calls completed, e.g. 0.95 -> p95.
+     - returns -1 while fewer than minSamples calls were recorded (not enough data to call anything slow).
+     */
+    public synchronized long percentile(double percentile, int minSamples) {
+        if (count == 0 || count < minSamples) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
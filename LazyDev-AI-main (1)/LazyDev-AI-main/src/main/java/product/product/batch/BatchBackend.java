@@ -0,0 +1,33 @@
+package product.product.batch;
+
+import java.nio.file.Path;
+
+/*
+ Pluggable backend for bulk (asynchronous) test generation, selected with lazydev.batch-backend.
+
+ - The job file is JSONL in the OpenAI batch format, one chat completion request per line:
+   {"custom_id": "<className#signature>", "method": "POST", "url": "/v1/chat/completions", "body": {...}}
+ - The results file uses the matching output format:
+   {"custom_id": "...", "response": {"status_code": 200, "body": {"choices": [{"message": {"content": "..."}}]}}}
+ */
+public interface BatchBackend {
+
+    //Name used in lazydev.batch-backend.
+    String getName();
+
+    //Submits the job file and returns the job id of the backend.
+    String submit(Path jobFile) throws Exception;
+
+    //Current state of a submitted job.
+    BatchStatus poll(String jobId) throws Exception;
+
+    //Downloads the results of a completed job into resultFile.
+    void downloadResults(String jobId, Path resultFile) throws Exception;
+
+
+    enum BatchStatus {
+        IN_PROGRESS,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,255 @@
+package product.product.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import product.product.ai.AIService;
+import product.product.batch.BatchBackend.BatchStatus;
+import product.product.configuration.Config;
+import product.product.dto.MethodMetaData;
+import product.product.testGenerator.TestGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/*
+
+Role of this class :
+- Bulk mode of generate-tests (--bulk) for nightly whole-repo runs where latency doesn't matter.
+- Instead of one synchronous ChatClient call per method, every prompt is serialized to one JSONL job file
+  and submitted through the configured BatchBackend (lazydev.batch-backend).
+- The job id is checkpointed in .lazydev/batch/checkpoint.properties: re-running --bulk after the process
+  was stopped (or with lazydev.batch-wait=false, fire-and-forget) picks up the same job instead of submitting again.
+- Once the job completes, the results are fanned back into TestGenerator's normal class assembly.
+ */
+@Component
+public class BulkGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkGenerator.class);
+
+    private static final String CHECKPOINT_FILE = "checkpoint.properties";
+
+    private final Config config;
+    private final AIService aiService;
+    private final TestGenerator testGenerator;
+    private final List<BatchBackend> backends;
+    private final String model;
+    private final double temperature;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+
+    public BulkGenerator(Config config, AIService aiService, TestGenerator testGenerator, List<BatchBackend> backends,
+                         @Value("${spring.ai.openai.chat.options.model:gpt-4-turbo}") String model,
+                         @Value("${spring.ai.openai.chat.options.temperature:0.7}") double temperature) {
+        this.config = config;
+        this.aiService = aiService;
+        this.testGenerator = testGenerator;
+        this.backends = backends;
+        this.model = model;
+        this.temperature = temperature;
+    }
+
+
+    /*
+     - Submits (or picks up the checkpointed) batch job, waits for it and writes the test classes.
+     - returns true if test classes were assembled, false if the job is still running, failed or nothing was submitted.
+     */
+    public boolean run(List<MethodMetaData> methods, String projectRootPath) {
+        BatchBackend backend = selectBackend();
+        if (backend == null) {
+            return false;
+        }
+
+        try {
+            Path batchDir = resolveBatchDirectory(projectRootPath);
+            Files.createDirectories(batchDir);
+            Properties checkpoint = loadCheckpoint(batchDir);
+
+            String jobId;
+            Path jobFile;
+            if (checkpoint != null && backend.getName().equals(checkpoint.getProperty("backend"))) {
+                jobId = checkpoint.getProperty("jobId");
+                jobFile = Paths.get(checkpoint.getProperty("jobFile"));
+                LOGGER.info(" Picking up checkpointed batch job {} ({})", jobId, backend.getName());
+            } else {
+                List<MethodMetaData> missing = testGenerator.methodsWithoutGeneratedTests(methods, projectRootPath);
+                if (missing.isEmpty()) {
+                    LOGGER.info(" All selected methods already have generated tests, nothing to submit.");
+                    return false;
+                }
+
+                jobFile = writeJobFile(missing, batchDir);
+                jobId = backend.submit(jobFile);
+                saveCheckpoint(batchDir, backend.getName(), jobId, jobFile);
+                LOGGER.info(" Submitted {} requests as batch job {} ({})", missing.size(), jobId, backend.getName());
+            }
+
+            // Poll once first: a checkpointed job may already be done (and the local backend only resumes on poll)
+            BatchStatus status = backend.poll(jobId);
+            if (status == BatchStatus.IN_PROGRESS) {
+                if (!config.isBatchWait()) {
+                    LOGGER.info(" Not waiting for batch job {}, run generate-tests --bulk again to collect the results.", jobId);
+                    return false;
+                }
+                status = waitForCompletion(backend, jobId);
+            }
+            if (status == BatchStatus.FAILED) {
+                LOGGER.error(" Batch job {} failed, clearing the checkpoint so the next run submits again.", jobId);
+                Files.deleteIfExists(batchDir.resolve(CHECKPOINT_FILE));
+                return false;
+            }
+            if (status != BatchStatus.COMPLETED) {
+                LOGGER.warn(" Batch job {} still running after {} minutes, run --bulk again later.", jobId, config.getBatchMaxWaitMinutes());
+                return false;
+            }
+
+            // Fan the results back into the normal class assembly (only the methods that were submitted)
+            Path resultFile = batchDir.resolve(jobFile.getFileName().toString().replace(".jsonl", "-results.jsonl"));
+            backend.downloadResults(jobId, resultFile);
+            Map<String, String> results = readResults(resultFile);
+            if (results.isEmpty()) {
+                LOGGER.warn(" Batch job {} returned no usable results, the next bulk run submits its methods again.", jobId);
+                Files.deleteIfExists(batchDir.resolve(CHECKPOINT_FILE));
+                return false;
+            }
+            Set<String> submittedKeys = readSubmittedKeys(jobFile);
+
+            List<MethodMetaData> submitted = methods.stream()
+                    .filter(method -> submittedKeys.contains(method.getKey()))
+                    .toList();
+            LOGGER.info(" Batch job {} returned {} results for {} methods.", jobId, results.size(), submitted.size());
+            testGenerator.assembleTests(submitted, projectRootPath, results);
+
+            Files.deleteIfExists(batchDir.resolve(CHECKPOINT_FILE));
+            return true;
+
+        } catch (Exception e) {
+            LOGGER.error(" Bulk generation failed: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+
+    //One chat completion request per method, custom_id = method key so results map back without extra state.
+    private Path writeJobFile(List<MethodMetaData> methods, Path batchDir) throws IOException {
+        Path jobFile = batchDir.resolve("job-" + System.currentTimeMillis() + ".jsonl");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(jobFile, StandardCharsets.UTF_8)) {
+            for (MethodMetaData method : methods) {
+                ObjectNode request = objectMapper.createObjectNode();
+                request.put("custom_id", method.getKey());
+                request.put("method", "POST");
+                request.put("url", "/v1/chat/completions");
+
+                ObjectNode body = request.putObject("body");
+                body.put("model", model);
+                body.put("temperature", temperature);
+                body.putArray("messages").addObject()
+                        .put("role", "user")
+                        .put("content", aiService.buildPrompt(method));
+
+                writer.write(objectMapper.writeValueAsString(request));
+                writer.newLine();
+            }
+        }
+        return jobFile;
+    }
+
+
+    private BatchStatus waitForCompletion(BatchBackend backend, String jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + config.getBatchMaxWaitMinutes() * 60_000L;
+        while (true) {
+            Thread.sleep(config.getBatchPollIntervalSeconds() * 1000L);
+            BatchStatus status = backend.poll(jobId);
+            if (status != BatchStatus.IN_PROGRESS || System.currentTimeMillis() >= deadline) {
+                return status;
+            }
+        }
+    }
+
+
+    //custom_id -> generated content of every successful request.
+    private Map<String, String> readResults(Path resultFile) throws IOException {
+        Map<String, String> results = new HashMap<>();
+        for (String line : Files.readAllLines(resultFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode result = objectMapper.readTree(line);
+            JsonNode response = result.path("response");
+            if (response.path("status_code").asInt() != 200) {
+                LOGGER.warn(" Batch request {} failed: {}", result.path("custom_id").asText(), result.path("error"));
+                continue;
+            }
+            String content = response.path("body").path("choices").path(0).path("message").path("content").asText(null);
+            if (content != null) {
+                results.put(result.path("custom_id").asText(), content);
+            }
+        }
+        return results;
+    }
+
+
+    private Set<String> readSubmittedKeys(Path jobFile) throws IOException {
+        Set<String> keys = new HashSet<>();
+        for (String line : Files.readAllLines(jobFile, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                keys.add(objectMapper.readTree(line).path("custom_id").asText());
+            }
+        }
+        return keys;
+    }
+
+
+    private BatchBackend selectBackend() {
+        for (BatchBackend backend : backends) {
+            if (backend.getName().equalsIgnoreCase(config.getBatchBackend())) {
+                return backend;
+            }
+        }
+        LOGGER.error(" Unknown batch backend '{}'. Available: {}", config.getBatchBackend(),
+                backends.stream().map(BatchBackend::getName).toList());
+        return null;
+    }
+
+
+    private Properties loadCheckpoint(Path batchDir) throws IOException {
+        Path checkpointFile = batchDir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            checkpoint.load(reader);
+        }
+        return checkpoint;
+    }
+
+
+    private void saveCheckpoint(Path batchDir, String backendName, String jobId, Path jobFile) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("backend", backendName);
+        checkpoint.setProperty("jobId", jobId);
+        checkpoint.setProperty("jobFile", jobFile.toAbsolutePath().toString());
+        try (Writer writer = Files.newBufferedWriter(batchDir.resolve(CHECKPOINT_FILE), StandardCharsets.UTF_8)) {
+            checkpoint.store(writer, "LazyDev bulk generation job");
+        }
+    }
+
+
+    private Path resolveBatchDirectory(String projectRootPath) {
+        Path path = Paths.get(config.getBatchDirectory());
+        return path.isAbsolute() ? path : Paths.get(projectRootPath).resolve(path);
+    }
+}
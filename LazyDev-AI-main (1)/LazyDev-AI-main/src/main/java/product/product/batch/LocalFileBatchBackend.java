@@ -0,0 +1,176 @@
+package product.product.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.ChatClient;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+
+Role of this class :
+- File-based stand-in for a real batch provider (lazydev.batch-backend=local), used to test bulk mode end to end.
+- A job is a folder next to the job file: input.jsonl, output.jsonl and a status file.
+- The requests are worked off one by one through the normal ChatClient on a background thread.
+- The job id is the job folder itself, so a restarted process picks the job up again on the next poll
+  and continues after the last request already in output.jsonl.
+ */
+@Component
+public class LocalFileBatchBackend implements BatchBackend {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalFileBatchBackend.class);
+
+    private static final String INPUT_FILE = "input.jsonl";
+    private static final String OUTPUT_FILE = "output.jsonl";
+    private static final String STATUS_FILE = "status";
+
+    private final ChatClient chatClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Thread> runningJobs = new ConcurrentHashMap<>();
+
+
+    public LocalFileBatchBackend(ChatClient chatClient) {
+        this.chatClient = chatClient;
+    }
+
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public String submit(Path jobFile) throws IOException {
+        Path jobDir = jobFile.toAbsolutePath().resolveSibling("local-job-" + System.currentTimeMillis());
+        Files.createDirectories(jobDir);
+        Files.copy(jobFile, jobDir.resolve(INPUT_FILE), StandardCopyOption.REPLACE_EXISTING);
+        writeStatus(jobDir, BatchStatus.IN_PROGRESS);
+
+        String jobId = jobDir.toString();
+        startWorker(jobId);
+        return jobId;
+    }
+
+    @Override
+    public BatchStatus poll(String jobId) throws IOException {
+        Path statusFile = Path.of(jobId).resolve(STATUS_FILE);
+        if (!Files.exists(statusFile)) {
+            return BatchStatus.FAILED;
+        }
+
+        BatchStatus status = BatchStatus.valueOf(Files.readString(statusFile).trim());
+        if (status == BatchStatus.IN_PROGRESS && !runningJobs.containsKey(jobId)) {
+            LOGGER.info(" Local batch job {} was interrupted, continuing it.", jobId);
+            startWorker(jobId);
+        }
+        return status;
+    }
+
+    @Override
+    public void downloadResults(String jobId, Path resultFile) throws IOException {
+        Files.copy(Path.of(jobId).resolve(OUTPUT_FILE), resultFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+
+    private void startWorker(String jobId) {
+        Thread worker = new Thread(() -> {
+            try {
+                processJob(Path.of(jobId));
+            } finally {
+                runningJobs.remove(jobId);
+            }
+        }, "lazydev-local-batch");
+        worker.setDaemon(true);
+        runningJobs.put(jobId, worker);
+        worker.start();
+    }
+
+
+    //Answers every request of input.jsonl that has no line in output.jsonl yet.
+    private void processJob(Path jobDir) {
+        try {
+            Path outputFile = jobDir.resolve(OUTPUT_FILE);
+            Set<String> done = new HashSet<>();
+            if (Files.exists(outputFile)) {
+                for (String line : Files.readAllLines(outputFile, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        done.add(objectMapper.readTree(line).path("custom_id").asText());
+                    }
+                }
+            }
+
+            try (BufferedWriter writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String line : Files.readAllLines(jobDir.resolve(INPUT_FILE), StandardCharsets.UTF_8)) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    JsonNode request = objectMapper.readTree(line);
+                    String customId = request.path("custom_id").asText();
+                    if (done.contains(customId)) {
+                        continue;
+                    }
+
+                    writer.write(objectMapper.writeValueAsString(answer(customId, request)));
+                    writer.newLine();
+                    writer.flush();
+                }
+            }
+
+            writeStatus(jobDir, BatchStatus.COMPLETED);
+            LOGGER.info(" Local batch job completed: {}", jobDir);
+
+        } catch (Exception e) {
+            LOGGER.error(" Local batch job {} failed: {}", jobDir, e.getMessage(), e);
+            try {
+                writeStatus(jobDir, BatchStatus.FAILED);
+            } catch (IOException statusError) {
+                LOGGER.error(" Failed to mark local batch job as failed: {}", statusError.getMessage());
+            }
+        }
+    }
+
+
+    //One output line: the model's answer in the OpenAI batch output format, or an error entry.
+    private ObjectNode answer(String customId, JsonNode request) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("custom_id", customId);
+
+        JsonNode messages = request.path("body").path("messages");
+        String prompt = messages.path(messages.size() - 1).path("content").asText();
+        try {
+            String content = chatClient.call(new Prompt(List.of(new UserMessage(prompt)))).getResult().getOutput().getContent();
+
+            ObjectNode response = result.putObject("response");
+            response.put("status_code", 200);
+            response.putObject("body").putArray("choices").addObject()
+                    .putObject("message").put("role", "assistant").put("content", content);
+
+        } catch (Exception e) {
+            LOGGER.warn(" Local batch request {} failed: {}", customId, e.getMessage());
+            result.putObject("response").put("status_code", 500);
+            result.putObject("error").put("message", String.valueOf(e.getMessage()));
+        }
+        return result;
+    }
+
+
+    private void writeStatus(Path jobDir, BatchStatus status) throws IOException {
+        Files.writeString(jobDir.resolve(STATUS_FILE), status.name());
+    }
+}
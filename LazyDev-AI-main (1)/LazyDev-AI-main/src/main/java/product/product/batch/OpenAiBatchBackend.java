@@ -0,0 +1,127 @@
+package product.product.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/*
+
+Role of this class :
+- Batch backend for the OpenAI Batch API (lazydev.batch-backend=openai).
+- Uploads the JSONL job file (purpose "batch"), creates a batch on /v1/chat/completions,
+  polls its status and downloads the output file once it is completed.
+- Uses the same API key and base URL as the Spring AI OpenAI client (spring.ai.openai.*).
+ */
+@Component
+public class OpenAiBatchBackend implements BatchBackend {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenAiBatchBackend.class);
+
+    private final RestClient restClient;
+
+
+    public OpenAiBatchBackend(@Value("${spring.ai.openai.api-key:}") String apiKey,
+                              @Value("${spring.ai.openai.base-url:https://api.openai.com}") String baseUrl) {
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+    }
+
+
+    @Override
+    public String getName() {
+        return "openai";
+    }
+
+    @Override
+    public String submit(Path jobFile) {
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("purpose", "batch");
+        parts.add("file", new FileSystemResource(jobFile));
+
+        JsonNode uploadedFile = restClient.post()
+                .uri("/v1/files")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(parts)
+                .retrieve()
+                .body(JsonNode.class);
+        String inputFileId = uploadedFile.path("id").asText();
+
+        JsonNode batch = restClient.post()
+                .uri("/v1/batches")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of(
+                        "input_file_id", inputFileId,
+                        "endpoint", "/v1/chat/completions",
+                        "completion_window", "24h"))
+                .retrieve()
+                .body(JsonNode.class);
+
+        String batchId = batch.path("id").asText();
+        LOGGER.info(" OpenAI batch created: {} (input file {})", batchId, inputFileId);
+        return batchId;
+    }
+
+    @Override
+    public BatchStatus poll(String jobId) {
+        JsonNode batch = fetchBatch(jobId);
+        String status = batch.path("status").asText();
+        LOGGER.info(" OpenAI batch {} status: {} ({} of {} requests done)", jobId, status,
+                batch.path("request_counts").path("completed").asInt(),
+                batch.path("request_counts").path("total").asInt());
+
+        return switch (status) {
+            case "completed" -> BatchStatus.COMPLETED;
+            case "failed", "expired", "cancelled", "cancelling" -> BatchStatus.FAILED;
+            default -> BatchStatus.IN_PROGRESS; // validating, in_progress, finalizing
+        };
+    }
+
+    /*
+     - The output file holds the successful requests. It is absent (output_file_id null) if every request failed,
+       then the error file is downloaded instead, so each failure is reported, or nothing if there is none either.
+     */
+    @Override
+    public void downloadResults(String jobId, Path resultFile) throws Exception {
+        JsonNode batch = fetchBatch(jobId);
+        String outputFileId = batch.path("output_file_id").textValue();
+        if (outputFileId == null) {
+            String errorFileId = batch.path("error_file_id").textValue();
+            LOGGER.warn(" Batch job {} has no output file ({} of {} requests failed).", jobId,
+                    batch.path("request_counts").path("failed").asInt(), batch.path("request_counts").path("total").asInt());
+            Files.write(resultFile, errorFileId != null ? downloadFile(errorFileId) : new byte[0]);
+            return;
+        }
+        Files.write(resultFile, downloadFile(outputFileId));
+    }
+
+
+    private byte[] downloadFile(String fileId) {
+        byte[] content = restClient.get()
+                .uri("/v1/files/{fileId}/content", fileId)
+                .retrieve()
+                .body(byte[].class);
+        return content != null ? content : new byte[0];
+    }
+
+
+    private JsonNode fetchBatch(String jobId) {
+        return restClient.get()
+                .uri("/v1/batches/{batchId}", jobId)
+                .retrieve()
+                .body(JsonNode.class);
+    }
+}
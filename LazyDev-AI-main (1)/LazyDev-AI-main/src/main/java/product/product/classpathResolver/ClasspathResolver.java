@@ -0,0 +1,234 @@
+package product.product.classpathResolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import product.product.configuration.Config;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.*;
+
+/*
+
+Role of this class :
+- Resolves the classpath of the user's project once and caches it, keyed by a hash of all its pom.xml files.
+- The classpath is fed to Spoon (CodeAnalyzer) so parameter/return types from dependencies resolve properly.
+- A fresh cache also tells TestValidator that all dependencies are already in the local repository,
+  so Maven can run offline instead of checking the remote repositories again.
+
+How it resolves:
+- One "mvn dependency:build-classpath" call (test scope, every module writes target/lazydev-classpath.txt),
+  plus the target/classes folder of every module.
+- The result is written to .lazydev/classpath.cache: first line the pom hash, then one entry per line.
+ */
+@Component
+public class ClasspathResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathResolver.class);
+
+    private static final String MODULE_OUTPUT_FILE = "target/lazydev-classpath.txt";
+
+    private final Config config;
+
+    private final Map<String, List<String>> resolvedByHash = new HashMap<>(); //in-process cache
+
+
+    public ClasspathResolver(Config config) {
+        this.config = config;
+    }
+
+
+    /*
+     - returns the classpath entries of the project (cached when the pom files didn't change).
+     - returns an empty list if it can't be resolved (Spoon then falls back to no-classpath mode).
+     */
+    public synchronized List<String> resolve(String projectRootPath) {
+        String pomHash = hashPomFiles(projectRootPath);
+        if (pomHash == null) {
+            return List.of();
+        }
+
+        List<String> classpath = resolvedByHash.get(pomHash);
+        if (classpath == null) {
+            classpath = readCache(projectRootPath, pomHash);
+        }
+        if (classpath == null) {
+            classpath = resolveWithMaven(projectRootPath);
+            if (classpath.isEmpty()) {
+                return classpath;
+            }
+            writeCache(projectRootPath, pomHash, classpath);
+        }
+
+        resolvedByHash.put(pomHash, classpath);
+        return classpath;
+    }
+
+
+    //returns true if the cached classpath still matches the pom files (all dependencies are already downloaded).
+    public synchronized boolean isCacheFresh(String projectRootPath) {
+        String pomHash = hashPomFiles(projectRootPath);
+        return pomHash != null && (resolvedByHash.containsKey(pomHash) || readCache(projectRootPath, pomHash) != null);
+    }
+
+
+    //Runs dependency:build-classpath once for the whole (multi-module) project and collects the module outputs.
+    private List<String> resolveWithMaven(String projectRootPath) {
+        Set<String> classpath = new LinkedHashSet<>();
+        try {
+            LOGGER.info(" Resolving project classpath with Maven: {}", projectRootPath);
+
+            List<String> mvnCommand = new ArrayList<>();
+            if (isWindows()) {
+                mvnCommand.addAll(List.of("cmd.exe", "/c"));
+            }
+            mvnCommand.addAll(List.of("mvn", "-q", "dependency:build-classpath",
+                    "-Dmdep.includeScope=test", "-Dmdep.outputFile=" + MODULE_OUTPUT_FILE));
+
+            ProcessBuilder processBuilder = new ProcessBuilder(mvnCommand);
+            processBuilder.directory(new File(projectRootPath));
+            processBuilder.redirectErrorStream(true);
+            Process process = processBuilder.start();
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    LOGGER.debug(" [mvn] {}", line);
+                }
+            }
+
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                LOGGER.warn(" Classpath resolution failed (exit code {}), analyzing without classpath.", exitCode);
+                return List.of();
+            }
+
+            for (Path moduleRoot : findModuleRoots(projectRootPath)) {
+                Path outputFile = moduleRoot.resolve(MODULE_OUTPUT_FILE);
+                if (Files.exists(outputFile)) {
+                    String entries = Files.readString(outputFile, StandardCharsets.UTF_8).trim();
+                    if (!entries.isEmpty()) {
+                        classpath.addAll(Arrays.asList(entries.split(File.pathSeparator)));
+                    }
+                }
+                Path classes = moduleRoot.resolve("target/classes");
+                if (Files.isDirectory(classes)) {
+                    classpath.add(classes.toAbsolutePath().toString());
+                }
+            }
+
+            LOGGER.info(" Resolved {} classpath entries.", classpath.size());
+
+        } catch (Exception e) {
+            LOGGER.error(" Error resolving project classpath: {}", e.getMessage(), e);
+            return List.of();
+        }
+        return new ArrayList<>(classpath);
+    }
+
+
+    //SHA-256 over the relative path and content of every pom.xml of the project (null if there is none).
+    private String hashPomFiles(String projectRootPath) {
+        Path root = Paths.get(projectRootPath).toAbsolutePath().normalize();
+        try {
+            List<Path> moduleRoots = findModuleRoots(projectRootPath);
+            if (moduleRoots.isEmpty()) {
+                LOGGER.warn(" No pom.xml found in {}, skipping classpath resolution.", root);
+                return null;
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Path moduleRoot : moduleRoots) {
+                Path pom = moduleRoot.resolve("pom.xml");
+                digest.update(root.relativize(pom).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(pom));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+
+        } catch (Exception e) {
+            LOGGER.error(" Failed to hash pom files of {}: {}", root, e.getMessage(), e);
+            return null;
+        }
+    }
+
+
+    //Folders containing a pom.xml (build output and tool folders are not descended into), sorted for a stable hash.
+    private List<Path> findModuleRoots(String projectRootPath) throws IOException {
+        Path root = Paths.get(projectRootPath).toAbsolutePath().normalize();
+        List<Path> moduleRoots = new ArrayList<>();
+
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String name = dir.getFileName() != null ? dir.getFileName().toString() : "";
+                if (!dir.equals(root) && (name.equals("target") || name.equals("node_modules") || name.startsWith("."))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (Files.isRegularFile(dir.resolve("pom.xml"))) {
+                    moduleRoots.add(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(moduleRoots);
+        return moduleRoots;
+    }
+
+
+    //returns the cached entries if the cache was written for this pom hash, null otherwise.
+    private List<String> readCache(String projectRootPath, String pomHash) {
+        Path cacheFile = cachePath(projectRootPath);
+        try {
+            if (!Files.exists(cacheFile)) {
+                return null;
+            }
+            List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(pomHash)) {
+                return null;
+            }
+            LOGGER.info(" Using cached project classpath: {}", cacheFile);
+            return List.copyOf(lines.subList(1, lines.size()));
+
+        } catch (IOException e) {
+            LOGGER.warn(" Failed to read classpath cache {}: {}", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+
+
+    private void writeCache(String projectRootPath, String pomHash, List<String> classpath) {
+        Path cacheFile = cachePath(projectRootPath);
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            List<String> lines = new ArrayList<>();
+            lines.add(pomHash);
+            lines.addAll(classpath);
+            Files.write(cacheFile, lines, StandardCharsets.UTF_8);
+
+        } catch (IOException e) {
+            LOGGER.warn(" Failed to write classpath cache {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+
+    private Path cachePath(String projectRootPath) {
+        Path path = Paths.get(config.getClasspathCachePath());
+        return path.isAbsolute() ? path : Paths.get(projectRootPath).resolve(path);
+    }
+
+    private boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().contains("win");
+    }
+}
@@ -7,10 +7,14 @@ import product.product.configuration.Config;
 import product.product.dto.MethodMetaData;
 import spoon.Launcher;
 import spoon.reflect.CtModel;
+import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.*;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 /*
@@ -42,6 +46,14 @@ public class CodeAnalyzer {
      returns list of MethodMetaData for all extracted methods.
      */
     public List<MethodMetaData> analyzeSource(String sourceFolderPath) {
+        return analyzeSource(sourceFolderPath, List.of());
+    }
+
+    /*
+     Same as above, with the project's classpath (jars and class folders) so Spoon can fully resolve
+     types coming from dependencies. Entries that don't exist are ignored.
+     */
+    public List<MethodMetaData> analyzeSource(String sourceFolderPath, List<String> classpath) {
         List<MethodMetaData> analyzedMethods = new ArrayList<>();
 
 
@@ -61,41 +73,70 @@ public class CodeAnalyzer {
             return analyzedMethods;
         }
 
+        LOGGER.info(" Starting analysis of source folder: {}", sourceFolderPath);
         try {
-            LOGGER.info(" Starting analysis of source folder: {}", sourceFolderPath);
-
-            // Setup Spoon launcher
-            Launcher launcher = new Launcher();
-            launcher.addInputResource(sourceFolder.getAbsolutePath());
-            launcher.getEnvironment().setNoClasspath(true);
-            launcher.buildModel();
-
-            /*
-            - Load Java files from the directory.
-            - setNoClasspath(true) helps analyze code without needing full dependencies (good for incomplete projects).
-            */
-            CtModel model = launcher.getModel();
-
-            // Extract classes and methods
-            for (CtType<?> type : model.getAllTypes()) {
-                if (type instanceof CtClass<?> clazz) {
-                    LOGGER.info(" Analyzing class: {}", clazz.getQualifiedName());
-
-                    // Process each method
-                    for (CtMethod<?> method : clazz.getMethods()) {
-                        MethodMetaData metaData = extractMethodMetaData(clazz, method);
-                        analyzedMethods.add(metaData);
-                        LOGGER.debug(" Method found: {} in class {}", method.getSimpleName(), clazz.getQualifiedName());
-                    }
-                }
-            }
-
-            LOGGER.info("Analysis completed. Total methods found: {}", analyzedMethods.size());
-
+            return analyzeInputs(List.of(sourceFolder), classpath);
         } catch (Exception e) {
             LOGGER.error(" Exception during code analysis: {}", e.getMessage(), e);
+            return analyzedMethods;
+        }
+    }
+
+    /*
+     Analyzes only the given .java files (used by watch mode to re-analyze changed compilation units).
+     Files that don't exist anymore (deleted) are skipped.
+     Throws if Spoon can't build the model (e.g. a half-typed file with syntax errors), so the caller can tell
+     a failed analysis from a file without methods.
+     */
+    public List<MethodMetaData> analyzeFiles(List<File> javaFiles, List<String> classpath) throws Exception {
+        List<File> existingFiles = javaFiles.stream().filter(File::isFile).toList();
+        if (existingFiles.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LOGGER.info(" Starting analysis of {} changed file(s).", existingFiles.size());
+        return analyzeInputs(existingFiles, classpath);
+    }
+
+    //Runs Spoon over the given folders/files and extracts the metadata of every class method.
+    private List<MethodMetaData> analyzeInputs(List<File> inputs, List<String> classpath) throws Exception {
+        List<MethodMetaData> analyzedMethods = new ArrayList<>();
+
+        // Setup Spoon launcher
+        Launcher launcher = new Launcher();
+        inputs.forEach(input -> launcher.addInputResource(input.getAbsolutePath()));
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.getEnvironment().setIgnoreSyntaxErrors(false); // fail instead of dropping broken files
+        launcher.getEnvironment().setCommentEnabled(false); // comments are not part of the metadata or the fingerprint
+        String[] existingEntries = classpath.stream().filter(entry -> new File(entry).exists()).toArray(String[]::new);
+        if (existingEntries.length > 0) {
+            launcher.getEnvironment().setSourceClasspath(existingEntries);
+            LOGGER.info(" Using project classpath with {} entries.", existingEntries.length);
+        }
+        launcher.buildModel();
+
+        /*
+        - Load Java files from the directory.
+        - setNoClasspath(true) helps analyze code without needing full dependencies (good for incomplete projects).
+        - With the project classpath set, types from dependencies are resolved fully, the flag only covers gaps.
+        */
+        CtModel model = launcher.getModel();
+
+        // Extract classes and methods
+        for (CtType<?> type : model.getAllTypes()) {
+            if (type instanceof CtClass<?> clazz) {
+                LOGGER.info(" Analyzing class: {}", clazz.getQualifiedName());
+
+                // Process each method
+                for (CtMethod<?> method : clazz.getMethods()) {
+                    MethodMetaData metaData = extractMethodMetaData(clazz, method);
+                    analyzedMethods.add(metaData);
+                    LOGGER.debug(" Method found: {} in class {}", method.getSimpleName(), clazz.getQualifiedName());
+                }
+            }
         }
 
+        LOGGER.info("Analysis completed. Total methods found: {}", analyzedMethods.size());
+
         return analyzedMethods;
     }
 
@@ -130,6 +171,14 @@ public class CodeAnalyzer {
         // Access Modifier
         String accessModifier = method.getModifiers().toString();
 
+        // Source line range (used to join JaCoCo coverage onto the method)
+        SourcePosition position = method.getPosition();
+        int startLine = position.isValidPosition() ? position.getLine() : -1;
+        int endLine = position.isValidPosition() ? position.getEndLine() : -1;
+
+        // Fingerprint of signature + body, so changed methods can be told apart from untouched ones
+        String fingerprint = fingerprintOf(method);
+
         return new MethodMetaData(
                 clazz.getQualifiedName(),
                 methodName,
@@ -138,7 +187,22 @@ public class CodeAnalyzer {
                 parameterTypes,
                 annotations,
                 thrownExceptions,
-                accessModifier
+                accessModifier,
+                startLine,
+                endLine,
+                fingerprint
         );
     }
+
+    //Short SHA-256 of the pretty-printed method (comments are not in the model, so neither comment nor formatting-only edits change it).
+    private String fingerprintOf(CtMethod<?> method) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(method.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (Exception e) {
+            LOGGER.debug(" Could not fingerprint method {}: {}", method.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
 }
@@ -12,6 +12,46 @@ public class Config {
     private String testPath;
     private String projectRootPath; //this is for the test validation location
 
+    //Coverage-guided generation (JaCoCo XML report of the target project)
+    private boolean coverageEnabled = true;
+    private double coverageThreshold = 0.8; //only methods below this coverage score get tests generated
+    private String coverageReportPath = "target/site/jacoco/jacoco.xml"; //relative to the project root
+    private boolean coverageMeasureImprovement = false; //re-run tests with JaCoCo and log the gain per method
+
+    //Run journal used by generate-tests --resume
+    private String journalPath = ".lazydev/generate-tests.journal"; //relative to the project root
+    private long journalFsyncIntervalMs = 1000;
+    private int journalFsyncBatchSize = 20;
+
+    //Budget and scheduling of generate-tests (0 = unlimited)
+    private long maxRunMinutes = 0;
+    private long maxTokens = 0;
+    private int generationThreads = 1; //test classes generated in parallel
+
+    //Project classpath resolution (cached per hash of all pom.xml files)
+    private String classpathCachePath = ".lazydev/classpath.cache"; //relative to the project root
+    private boolean validateOffline = true; //run mvn test offline while the cached classpath is fresh
+
+    //Bulk mode (generate-tests --bulk)
+    private String batchBackend = "local"; //local (file-based stand-in) or openai
+    private String batchDirectory = ".lazydev/batch"; //job files, results and the job checkpoint, relative to the project root
+    private long batchPollIntervalSeconds = 30;
+    private long batchMaxWaitMinutes = 1440;
+    private boolean batchWait = true; //false = submit and exit, a later --bulk run collects the results
+
+    //Watch mode (lazydev watch)
+    private long watchDebounceMs = 500; //quiet period before a burst of file changes is processed
+
+    //Hedged AI requests (duplicate request for calls slower than the percentile, first answer wins)
+    private boolean hedgeEnabled = false;
+    private double hedgePercentile = 0.95; //latency percentile of the recent calls after which a call is hedged
+    private double hedgeMaxRate = 0.1; //at most this fraction of all requests gets a duplicate
+    private int hedgeMinSamples = 20; //calls to observe before hedging starts
+
+    //Validation cache (skip test classes that passed with unchanged test source, target source and classpath)
+    private boolean validationCacheEnabled = true;
+    private String validationCachePath = ".lazydev/validation-cache.properties"; //relative to the project root
+
 
     public String getSourcePath() {
         return sourcePath;
@@ -37,12 +77,228 @@ public class Config {
         this.projectRootPath = projectRootPath;
     }
 
+    public boolean isCoverageEnabled() {
+        return coverageEnabled;
+    }
+
+    public void setCoverageEnabled(boolean coverageEnabled) {
+        this.coverageEnabled = coverageEnabled;
+    }
+
+    public double getCoverageThreshold() {
+        return coverageThreshold;
+    }
+
+    public void setCoverageThreshold(double coverageThreshold) {
+        this.coverageThreshold = coverageThreshold;
+    }
+
+    public String getCoverageReportPath() {
+        return coverageReportPath;
+    }
+
+    public void setCoverageReportPath(String coverageReportPath) {
+        this.coverageReportPath = coverageReportPath;
+    }
+
+    public boolean isCoverageMeasureImprovement() {
+        return coverageMeasureImprovement;
+    }
+
+    public void setCoverageMeasureImprovement(boolean coverageMeasureImprovement) {
+        this.coverageMeasureImprovement = coverageMeasureImprovement;
+    }
+
+    public String getJournalPath() {
+        return journalPath;
+    }
+
+    public void setJournalPath(String journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    public long getJournalFsyncIntervalMs() {
+        return journalFsyncIntervalMs;
+    }
+
+    public void setJournalFsyncIntervalMs(long journalFsyncIntervalMs) {
+        this.journalFsyncIntervalMs = journalFsyncIntervalMs;
+    }
+
+    public int getJournalFsyncBatchSize() {
+        return journalFsyncBatchSize;
+    }
+
+    public void setJournalFsyncBatchSize(int journalFsyncBatchSize) {
+        this.journalFsyncBatchSize = journalFsyncBatchSize;
+    }
+
+    public long getMaxRunMinutes() {
+        return maxRunMinutes;
+    }
+
+    public void setMaxRunMinutes(long maxRunMinutes) {
+        this.maxRunMinutes = maxRunMinutes;
+    }
+
+    public long getMaxTokens() {
+        return maxTokens;
+    }
+
+    public void setMaxTokens(long maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    public int getGenerationThreads() {
+        return generationThreads;
+    }
+
+    public void setGenerationThreads(int generationThreads) {
+        this.generationThreads = generationThreads;
+    }
+
+    public String getClasspathCachePath() {
+        return classpathCachePath;
+    }
+
+    public void setClasspathCachePath(String classpathCachePath) {
+        this.classpathCachePath = classpathCachePath;
+    }
+
+    public boolean isValidateOffline() {
+        return validateOffline;
+    }
+
+    public void setValidateOffline(boolean validateOffline) {
+        this.validateOffline = validateOffline;
+    }
+
+    public String getBatchBackend() {
+        return batchBackend;
+    }
+
+    public void setBatchBackend(String batchBackend) {
+        this.batchBackend = batchBackend;
+    }
+
+    public String getBatchDirectory() {
+        return batchDirectory;
+    }
+
+    public void setBatchDirectory(String batchDirectory) {
+        this.batchDirectory = batchDirectory;
+    }
+
+    public long getBatchPollIntervalSeconds() {
+        return batchPollIntervalSeconds;
+    }
+
+    public void setBatchPollIntervalSeconds(long batchPollIntervalSeconds) {
+        this.batchPollIntervalSeconds = batchPollIntervalSeconds;
+    }
+
+    public long getBatchMaxWaitMinutes() {
+        return batchMaxWaitMinutes;
+    }
+
+    public void setBatchMaxWaitMinutes(long batchMaxWaitMinutes) {
+        this.batchMaxWaitMinutes = batchMaxWaitMinutes;
+    }
+
+    public boolean isBatchWait() {
+        return batchWait;
+    }
+
+    public void setBatchWait(boolean batchWait) {
+        this.batchWait = batchWait;
+    }
+
+    public long getWatchDebounceMs() {
+        return watchDebounceMs;
+    }
+
+    public void setWatchDebounceMs(long watchDebounceMs) {
+        this.watchDebounceMs = watchDebounceMs;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public void setHedgeEnabled(boolean hedgeEnabled) {
+        this.hedgeEnabled = hedgeEnabled;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public double getHedgeMaxRate() {
+        return hedgeMaxRate;
+    }
+
+    public void setHedgeMaxRate(double hedgeMaxRate) {
+        this.hedgeMaxRate = hedgeMaxRate;
+    }
+
+    public int getHedgeMinSamples() {
+        return hedgeMinSamples;
+    }
+
+    public void setHedgeMinSamples(int hedgeMinSamples) {
+        this.hedgeMinSamples = hedgeMinSamples;
+    }
+
+    public boolean isValidationCacheEnabled() {
+        return validationCacheEnabled;
+    }
+
+    public void setValidationCacheEnabled(boolean validationCacheEnabled) {
+        this.validationCacheEnabled = validationCacheEnabled;
+    }
+
+    public String getValidationCachePath() {
+        return validationCachePath;
+    }
+
+    public void setValidationCachePath(String validationCachePath) {
+        this.validationCachePath = validationCachePath;
+    }
+
     @Override
     public String toString() {
         return "Config{" +
                 "sourcePath='" + sourcePath + '\'' +
                 ", testPath='" + testPath + '\'' +
                 ", projectRootPath='" + projectRootPath + '\'' +
+                ", coverageEnabled=" + coverageEnabled +
+                ", coverageThreshold=" + coverageThreshold +
+                ", coverageReportPath='" + coverageReportPath + '\'' +
+                ", coverageMeasureImprovement=" + coverageMeasureImprovement +
+                ", journalPath='" + journalPath + '\'' +
+                ", journalFsyncIntervalMs=" + journalFsyncIntervalMs +
+                ", journalFsyncBatchSize=" + journalFsyncBatchSize +
+                ", maxRunMinutes=" + maxRunMinutes +
+                ", maxTokens=" + maxTokens +
+                ", generationThreads=" + generationThreads +
+                ", classpathCachePath='" + classpathCachePath + '\'' +
+                ", validateOffline=" + validateOffline +
+                ", batchBackend='" + batchBackend + '\'' +
+                ", batchDirectory='" + batchDirectory + '\'' +
+                ", batchPollIntervalSeconds=" + batchPollIntervalSeconds +
+                ", batchMaxWaitMinutes=" + batchMaxWaitMinutes +
+                ", batchWait=" + batchWait +
+                ", watchDebounceMs=" + watchDebounceMs +
+                ", hedgeEnabled=" + hedgeEnabled +
+                ", hedgePercentile=" + hedgePercentile +
+                ", hedgeMaxRate=" + hedgeMaxRate +
+                ", hedgeMinSamples=" + hedgeMinSamples +
+                ", validationCacheEnabled=" + validationCacheEnabled +
+                ", validationCachePath='" + validationCachePath + '\'' +
                 '}';
     }
 }
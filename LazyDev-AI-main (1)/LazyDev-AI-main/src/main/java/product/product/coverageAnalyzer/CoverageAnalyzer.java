@@ -0,0 +1,228 @@
+package product.product.coverageAnalyzer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import product.product.configuration.Config;
+import product.product.dto.MethodCoverage;
+import product.product.dto.MethodMetaData;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.*;
+
+/*
+
+Role of this class :
+- Reads the JaCoCo XML report of the target project and joins line/branch coverage onto MethodMetaData.
+- Selects only the methods that are below the configured coverage threshold, lowest-covered first,
+  so AI calls are spent where they actually add coverage.
+- After the generated tests ran, re-reads the report and logs the coverage improvement per method.
+
+Report used:
+- JaCoCo XML report (target/site/jacoco/jacoco.xml by default, see lazydev.coverage-report-path).
+- The binary jacoco.exec needs the compiled classes to be interpreted, the XML report already has everything per method.
+ */
+@Component
+public class CoverageAnalyzer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoverageAnalyzer.class);
+
+    private final Config config;
+
+
+    public CoverageAnalyzer(Config config) {
+        this.config = config;
+    }
+
+
+    /*
+     - Joins coverage onto every method and returns only the ones below the threshold, lowest-covered first.
+     - If coverage is disabled or no report exists, the list is returned unchanged (everything gets generated).
+     */
+    public List<MethodMetaData> selectMethodsToGenerate(List<MethodMetaData> methods, String projectRootPath) {
+        if (!config.isCoverageEnabled()) {
+            return methods;
+        }
+
+        Map<String, List<ReportMethod>> report = readReport(projectRootPath);
+        if (report.isEmpty()) {
+            LOGGER.info(" No JaCoCo report found, generating tests for all {} methods.", methods.size());
+            return methods;
+        }
+
+        joinCoverage(methods, report);
+
+        double threshold = config.getCoverageThreshold();
+        List<MethodMetaData> selected = new ArrayList<>();
+        for (MethodMetaData method : methods) {
+            if (scoreOf(method) < threshold) {
+                selected.add(method);
+            }
+        }
+        selected.sort(Comparator.comparingDouble(CoverageAnalyzer::scoreOf));
+
+        LOGGER.info(" Coverage filter: {} of {} methods are below {}% coverage.",
+                selected.size(), methods.size(), Math.round(threshold * 100));
+        return selected;
+    }
+
+
+    /*
+     - Follow-up pass: re-reads the report after the generated tests ran and logs the improvement per method.
+     - returns the average improvement in coverage score (0.0 - 1.0) over the given methods.
+     */
+    public double reportImprovement(List<MethodMetaData> generatedFor, String projectRootPath) {
+        Map<String, List<ReportMethod>> report = readReport(projectRootPath);
+        if (report.isEmpty() || generatedFor.isEmpty()) {
+            LOGGER.warn(" Cannot measure coverage improvement, no JaCoCo report found after the test run.");
+            return 0.0;
+        }
+
+        double totalGain = 0.0;
+        for (MethodMetaData method : generatedFor) {
+            double before = scoreOf(method);
+            ReportMethod after = findReportMethod(method, report);
+            double afterScore = after != null ? after.coverage.getScore() : 0.0;
+            totalGain += afterScore - before;
+
+            LOGGER.info(" Coverage {}#{}: {}% -> {}%", method.getClassName(), method.getMethodName(),
+                    Math.round(before * 100), Math.round(afterScore * 100));
+        }
+        return totalGain / generatedFor.size();
+    }
+
+
+    //Attaches the report coverage to each method (methods missing from the report are left without coverage).
+    private void joinCoverage(List<MethodMetaData> methods, Map<String, List<ReportMethod>> report) {
+        for (MethodMetaData method : methods) {
+            ReportMethod reportMethod = findReportMethod(method, report);
+            if (reportMethod != null) {
+                method.setCoverage(reportMethod.coverage);
+            }
+        }
+    }
+
+
+    /*
+     - JaCoCo reports the first executable line of each method, Spoon gives the declaration's line range.
+     - Match by name and line inside that range, fall back to the name alone when it isn't overloaded.
+     */
+    private ReportMethod findReportMethod(MethodMetaData method, Map<String, List<ReportMethod>> report) {
+        List<ReportMethod> candidates = report.getOrDefault(method.getClassName(), List.of()).stream()
+                .filter(candidate -> candidate.name.equals(method.getMethodName()))
+                .toList();
+
+        if (method.getStartLine() > 0) {
+            for (ReportMethod candidate : candidates) {
+                if (candidate.line >= method.getStartLine() && candidate.line <= method.getEndLine()) {
+                    return candidate;
+                }
+            }
+        }
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+
+    //Methods without report data (class never loaded) are treated as not covered at all.
+    private static double scoreOf(MethodMetaData method) {
+        return method.getCoverage() != null ? method.getCoverage().getScore() : 0.0;
+    }
+
+
+    /*
+     - Parses the JaCoCo XML report into class name -> methods.
+     - Class names are converted from the JVM form (com/example/Foo$Inner) to the Spoon form (com.example.Foo$Inner).
+     - returns an empty map if the report doesn't exist or cannot be parsed.
+     */
+    private Map<String, List<ReportMethod>> readReport(String projectRootPath) {
+        Map<String, List<ReportMethod>> report = new HashMap<>();
+
+        File reportFile = new File(config.getCoverageReportPath());
+        if (!reportFile.isAbsolute()) {
+            reportFile = new File(projectRootPath, config.getCoverageReportPath());
+        }
+        if (!reportFile.isFile()) {
+            return report;
+        }
+
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            // The report references report.dtd, which is not shipped next to it
+            factory.setValidating(false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            Document document = builder.parse(reportFile);
+
+            NodeList classNodes = document.getElementsByTagName("class");
+            for (int i = 0; i < classNodes.getLength(); i++) {
+                Element classElement = (Element) classNodes.item(i);
+                String className = classElement.getAttribute("name").replace('/', '.');
+                List<ReportMethod> methods = report.computeIfAbsent(className, k -> new ArrayList<>());
+
+                NodeList methodNodes = classElement.getElementsByTagName("method");
+                for (int j = 0; j < methodNodes.getLength(); j++) {
+                    Element methodElement = (Element) methodNodes.item(j);
+                    methods.add(new ReportMethod(
+                            methodElement.getAttribute("name"),
+                            parseInt(methodElement.getAttribute("line")),
+                            readCoverage(methodElement)));
+                }
+            }
+
+            LOGGER.info(" Loaded JaCoCo report: {} ({} classes)", reportFile.getAbsolutePath(), report.size());
+
+        } catch (Exception e) {
+            LOGGER.error(" Failed to read JaCoCo report {}: {}", reportFile.getAbsolutePath(), e.getMessage(), e);
+            report.clear();
+        }
+
+        return report;
+    }
+
+
+    //Reads the LINE and BRANCH counters of a <method> element (missing counters mean nothing to cover).
+    private MethodCoverage readCoverage(Element methodElement) {
+        int lineCovered = 0, lineMissed = 0, branchCovered = 0, branchMissed = 0;
+
+        NodeList counters = methodElement.getElementsByTagName("counter");
+        for (int i = 0; i < counters.getLength(); i++) {
+            Element counter = (Element) counters.item(i);
+            int covered = parseInt(counter.getAttribute("covered"));
+            int missed = parseInt(counter.getAttribute("missed"));
+
+            switch (counter.getAttribute("type")) {
+                case "LINE" -> {
+                    lineCovered = covered;
+                    lineMissed = missed;
+                }
+                case "BRANCH" -> {
+                    branchCovered = covered;
+                    branchMissed = missed;
+                }
+                default -> {
+                    // INSTRUCTION, COMPLEXITY and METHOD counters are not used
+                }
+            }
+        }
+        return new MethodCoverage(lineCovered, lineMissed, branchCovered, branchMissed);
+    }
+
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+
+    //One <method> entry of the report.
+    private record ReportMethod(String name, int line, MethodCoverage coverage) {
+    }
+}
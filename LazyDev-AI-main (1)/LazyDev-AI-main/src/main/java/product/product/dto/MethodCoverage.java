@@ -0,0 +1,63 @@
+package product.product.dto;
+
+/**
+ * DTO for line and branch coverage of a single method, as read from a JaCoCo report.
+ */
+public class MethodCoverage {
+    private final int lineCovered;
+    private final int lineMissed;
+    private final int branchCovered;
+    private final int branchMissed;
+
+    public MethodCoverage(int lineCovered, int lineMissed, int branchCovered, int branchMissed) {
+        this.lineCovered = lineCovered;
+        this.lineMissed = lineMissed;
+        this.branchCovered = branchCovered;
+        this.branchMissed = branchMissed;
+    }
+
+    public int getLineCovered() {
+        return lineCovered;
+    }
+
+    public int getLineMissed() {
+        return lineMissed;
+    }
+
+    public int getBranchCovered() {
+        return branchCovered;
+    }
+
+    public int getBranchMissed() {
+        return branchMissed;
+    }
+
+    // Ratio of covered lines (0.0 - 1.0). A method without any lines counts as fully covered.
+    public double getLineCoverage() {
+        int total = lineCovered + lineMissed;
+        return total == 0 ? 1.0 : (double) lineCovered / total;
+    }
+
+    // Ratio of covered branches (0.0 - 1.0). A method without branches counts as fully covered.
+    public double getBranchCoverage() {
+        int total = branchCovered + branchMissed;
+        return total == 0 ? 1.0 : (double) branchCovered / total;
+    }
+
+    /*
+     - Single score used for thresholds and ordering.
+     - Methods with branches weigh lines and branches equally, straight-line methods use line coverage only.
+     */
+    public double getScore() {
+        if (branchCovered + branchMissed == 0) {
+            return getLineCoverage();
+        }
+        return (getLineCoverage() + getBranchCoverage()) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lines %d/%d, branches %d/%d",
+                lineCovered, lineCovered + lineMissed, branchCovered, branchCovered + branchMissed);
+    }
+}
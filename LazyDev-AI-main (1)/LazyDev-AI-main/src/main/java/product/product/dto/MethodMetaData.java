@@ -14,10 +14,24 @@ public class MethodMetaData {
     private final List<String> annotations;
     private final List<String> thrownExceptions;
     private final String accessModifier;
+    private final int startLine; //source line range of the method, -1 when Spoon has no position for it
+    private final int endLine;
+    private final String fingerprint; //hash of signature + body, null when unknown
+
+    //Coverage joined from the JaCoCo report (null when no report was available for this method).
+    private MethodCoverage coverage;
 
     public MethodMetaData(String className, String methodName, String signature, String returnType,
                           List<String> parameterTypes, List<String> annotations,
                           List<String> thrownExceptions, String accessModifier) {
+        this(className, methodName, signature, returnType, parameterTypes, annotations,
+                thrownExceptions, accessModifier, -1, -1, null);
+    }
+
+    public MethodMetaData(String className, String methodName, String signature, String returnType,
+                          List<String> parameterTypes, List<String> annotations,
+                          List<String> thrownExceptions, String accessModifier,
+                          int startLine, int endLine, String fingerprint) {
         this.className = className;
         this.methodName = methodName;
         this.signature = signature;
@@ -26,6 +40,9 @@ public class MethodMetaData {
         this.annotations = annotations;
         this.thrownExceptions = thrownExceptions;
         this.accessModifier = accessModifier;
+        this.startLine = startLine;
+        this.endLine = endLine;
+        this.fingerprint = fingerprint;
     }
 
     // ✅ Proper getters
@@ -61,11 +78,37 @@ public class MethodMetaData {
         return accessModifier;
     }
 
+    public int getStartLine() {
+        return startLine;
+    }
+
+    public int getEndLine() {
+        return endLine;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    //Stable key of the method (className#signature), used by the run journal and the generated-test markers.
+    public String getKey() {
+        return className + "#" + signature;
+    }
+
+    public MethodCoverage getCoverage() {
+        return coverage;
+    }
+
+    public void setCoverage(MethodCoverage coverage) {
+        this.coverage = coverage;
+    }
+
     @Override
     public String toString() {
         return "Class: " + className + ", Method: " + methodName +
                 ", Signature: " + signature + ", Return: " + returnType +
                 ", Params: " + parameterTypes + ", Annotations: " + annotations +
-                ", Throws: " + thrownExceptions + ", Modifier: " + accessModifier;
+                ", Throws: " + thrownExceptions + ", Modifier: " + accessModifier +
+                (coverage != null ? ", Coverage: " + coverage : "");
     }
 }
@@ -0,0 +1,252 @@
+package product.product.runJournal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import product.product.configuration.Config;
+import product.product.dto.MethodMetaData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/*
+
+Role of this class :
+- Append-only journal of a generate-tests run, so a killed run (CI timeout, OOM, network outage) can be resumed.
+- Records every completed method generation (with the generated test code) and every written test class.
+- With --resume the journal is replayed: written classes are skipped, journaled methods are reused without an AI call.
+
+Durability:
+- Records go to the file immediately, fsync is batched (every lazydev.journal-fsync-batch-size records
+  or every lazydev.journal-fsync-interval-ms, whichever comes first), so at most a few seconds of work can be lost.
+
+Record format (one line per record, fields are Base64 so code with tabs/newlines stays on one line):
+  M <tab> key <tab> testCode <tab> crc32      -> method generated (key = className#signature)
+  C <tab> className <tab> crc32             -> test class written
+- A torn last line (process killed mid-write) fails the CRC check and is ignored on replay.
+ */
+@Component
+public class RunJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RunJournal.class);
+
+    private static final String METHOD_RECORD = "M";
+    private static final String CLASS_RECORD = "C";
+
+    private final Config config;
+
+    private final Map<String, String> completedMethods = new HashMap<>(); //key -> generated test code
+    private final Set<String> writtenClasses = new HashSet<>();
+
+    private FileChannel channel;
+    private ScheduledExecutorService syncScheduler;
+    private int pendingRecords;
+
+
+    public RunJournal(Config config) {
+        this.config = config;
+    }
+
+
+    /*
+     - Opens the journal of the project for a new run.
+     - resume = true replays the existing journal and keeps appending to it, otherwise the journal starts empty.
+     */
+    public synchronized void open(String projectRootPath, boolean resume) {
+        close();
+        completedMethods.clear();
+        writtenClasses.clear();
+
+        Path journalPath = resolvePath(projectRootPath);
+        try {
+            Files.createDirectories(journalPath.toAbsolutePath().getParent());
+
+            if (resume) {
+                replay(journalPath);
+                LOGGER.info(" Resuming from journal {}: {} methods and {} classes already done.",
+                        journalPath, completedMethods.size(), writtenClasses.size());
+            } else {
+                Files.deleteIfExists(journalPath);
+            }
+
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            terminateTornRecord(journalPath);
+
+            long interval = config.getJournalFsyncIntervalMs();
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lazydev-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncScheduler.scheduleAtFixedRate(this::sync, interval, interval, TimeUnit.MILLISECONDS);
+
+        } catch (IOException e) {
+            // The run still works without a journal, it just can't be resumed
+            LOGGER.error(" Failed to open run journal {}: {}", journalPath, e.getMessage(), e);
+            channel = null;
+        }
+    }
+
+
+    //returns the journaled test code for this method, or null if it still has to be generated.
+    public synchronized String getCompletedTest(MethodMetaData method) {
+        return completedMethods.get(method.getKey());
+    }
+
+    //returns true if the test class for this source class was already written in the journaled run.
+    public synchronized boolean isClassWritten(String className) {
+        return writtenClasses.contains(className);
+    }
+
+    public synchronized void recordMethod(MethodMetaData method, String testCode) {
+        String key = method.getKey();
+        completedMethods.put(key, testCode);
+        append(METHOD_RECORD, key, testCode);
+    }
+
+    public synchronized void recordClassWritten(String className) {
+        writtenClasses.add(className);
+        append(CLASS_RECORD, className);
+    }
+
+
+    //Forces everything still pending to disk and closes the journal.
+    @PreDestroy
+    public synchronized void close() {
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+            syncScheduler = null;
+        }
+        if (channel != null) {
+            sync();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn(" Failed to close run journal: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+
+    //fsync of the pending records (called by the batch size check and the interval scheduler).
+    private synchronized void sync() {
+        // An interrupted thread would close the channel inside force() (ClosedByInterruptException)
+        if (channel == null || pendingRecords == 0 || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            channel.force(false);
+            pendingRecords = 0;
+        } catch (IOException e) {
+            LOGGER.warn(" Failed to sync run journal: {}", e.getMessage());
+        }
+    }
+
+
+    private void append(String type, String... fields) {
+        if (channel == null) {
+            return;
+        }
+
+        StringBuilder payload = new StringBuilder(type);
+        for (String field : fields) {
+            payload.append('\t').append(encode(field));
+        }
+        String line = payload + "\t" + checksum(payload.toString()) + "\n";
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (++pendingRecords >= config.getJournalFsyncBatchSize()) {
+                sync();
+            }
+        } catch (IOException e) {
+            LOGGER.error(" Failed to append to run journal: {}", e.getMessage(), e);
+        }
+    }
+
+
+    //Rebuilds the completed methods and written classes from the journal file (invalid lines are skipped).
+    private void replay(Path journalPath) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+
+        int skipped = 0;
+        for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            int checksumIndex = fields.length - 1;
+            String payload = line.substring(0, Math.max(0, line.lastIndexOf('\t')));
+
+            try {
+                if (fields.length < 3 || !checksum(payload).equals(fields[checksumIndex])) {
+                    skipped++;
+                } else if (METHOD_RECORD.equals(fields[0]) && fields.length == 4) {
+                    completedMethods.put(decode(fields[1]), decode(fields[2]));
+                } else if (CLASS_RECORD.equals(fields[0]) && fields.length == 3) {
+                    writtenClasses.add(decode(fields[1]));
+                } else {
+                    skipped++;
+                }
+            } catch (IllegalArgumentException e) {
+                skipped++;
+            }
+        }
+
+        if (skipped > 0) {
+            LOGGER.warn(" Ignored {} incomplete journal record(s) in {}", skipped, journalPath);
+        }
+    }
+
+
+    //A record torn by a kill has no trailing newline, end it so the next record starts on its own line.
+    private void terminateTornRecord(Path journalPath) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        try (FileChannel reader = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            reader.read(lastByte, size - 1);
+            if (lastByte.get(0) != '\n') {
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        }
+    }
+
+
+    private Path resolvePath(String projectRootPath) {
+        Path path = Paths.get(config.getJournalPath());
+        return path.isAbsolute() ? path : Paths.get(projectRootPath).resolve(path);
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+
+    private static String checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,177 @@
+package product.product.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import product.product.ai.AIService;
+import product.product.configuration.Config;
+import product.product.dto.MethodMetaData;
+
+import java.util.*;
+
+/*
+
+Role of this class :
+- Decides which test classes get generated and in which order, within a wall-clock and token budget.
+- "Spend at most 20 minutes or 2M tokens in this CI job and do the most useful work first."
+
+How it works:
+- Each method gets an estimated token cost (prompt + expected test size, from the method's line count)
+  and a value (visibility x size x coverage gap from the JaCoCo report, if any).
+- Work is planned per source class, because a test class is only written once all its methods are done.
+- Classes are picked by value per token until the token budget is planned out (greedy knapsack).
+- The picked classes run longest-first when generating on several threads (keeps the last thread from
+  finishing far behind the others), otherwise most valuable per token first.
+- Budget.isExhausted() is checked before every AI call: when the time or tokens run out the current
+  class is dropped (its finished methods stay in the run journal for --resume) and completed classes stay written.
+ */
+@Component
+public class GenerationScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationScheduler.class);
+
+    // Token estimate per method: prompt template + metadata, and a test that grows with the method
+    private static final long PROMPT_TOKENS = 300;
+    private static final long BASE_OUTPUT_TOKENS = 200;
+    private static final long OUTPUT_TOKENS_PER_LINE = 25;
+    private static final int UNKNOWN_METHOD_LINES = 10; //when Spoon had no source position
+
+    private final Config config;
+    private final AIService aiService;
+
+
+    public GenerationScheduler(Config config, AIService aiService) {
+        this.config = config;
+        this.aiService = aiService;
+    }
+
+
+    /*
+     - Groups methods per source class and returns the classes to generate, in execution order.
+     - Classes that don't fit the token budget (lazydev.max-tokens) are left out and logged.
+     */
+    public List<ClassJob> plan(List<MethodMetaData> methods) {
+        return plan(methods, config.getMaxTokens());
+    }
+
+    //Same as above with an explicit token budget (0 = plan everything).
+    public List<ClassJob> plan(List<MethodMetaData> methods, long maxTokens) {
+        Map<String, List<MethodMetaData>> classMethodMap = new LinkedHashMap<>();
+        for (MethodMetaData metaData : methods) {
+            classMethodMap.computeIfAbsent(metaData.getClassName(), k -> new ArrayList<>()).add(metaData);
+        }
+
+        List<ClassJob> jobs = new ArrayList<>();
+        for (Map.Entry<String, List<MethodMetaData>> entry : classMethodMap.entrySet()) {
+            long tokens = 0;
+            double value = 0;
+            for (MethodMetaData method : entry.getValue()) {
+                tokens += estimateTokens(method);
+                value += estimateValue(method);
+            }
+            jobs.add(new ClassJob(entry.getKey(), entry.getValue(), tokens, value));
+        }
+
+        // Most value per token first
+        jobs.sort(Comparator.comparingDouble((ClassJob job) -> job.value() / job.estimatedTokens()).reversed());
+
+        List<ClassJob> selected = new ArrayList<>();
+        long plannedTokens = 0;
+        for (ClassJob job : jobs) {
+            if (maxTokens > 0 && plannedTokens + job.estimatedTokens() > maxTokens) {
+                LOGGER.info(" Not scheduled (token budget): {} (~{} tokens)", job.className(), job.estimatedTokens());
+                continue;
+            }
+            plannedTokens += job.estimatedTokens();
+            selected.add(job);
+        }
+
+        // Longest jobs first so parallel threads finish close together
+        if (config.getGenerationThreads() > 1) {
+            selected.sort(Comparator.comparingLong(ClassJob::estimatedTokens).reversed());
+        }
+
+        LOGGER.info(" Scheduled {} of {} classes (~{} tokens estimated).", selected.size(), jobs.size(), plannedTokens);
+        return selected;
+    }
+
+
+    //Starts the budget of one run (lazydev.max-run-minutes / lazydev.max-tokens, 0 means unlimited).
+    public Budget startBudget() {
+        long maxNanos = config.getMaxRunMinutes() * 60_000_000_000L;
+        return new Budget(System.nanoTime(), maxNanos, aiService.getTokensUsed(), config.getMaxTokens());
+    }
+
+
+    //Budget that never runs out (used when the tests were already generated, e.g. by a bulk job).
+    public Budget unlimitedBudget() {
+        return new Budget(System.nanoTime(), 0, 0, 0);
+    }
+
+
+    private long estimateTokens(MethodMetaData method) {
+        return PROMPT_TOKENS + BASE_OUTPUT_TOKENS + OUTPUT_TOKENS_PER_LINE * lineCount(method);
+    }
+
+
+    /*
+     - Value of a generated test for this method:
+       visibility (public API matters most, private code is reached through it)
+       x size (bigger methods have more to test, but not linearly more)
+       x coverage gap (1.0 without a JaCoCo report).
+     */
+    private double estimateValue(MethodMetaData method) {
+        String modifiers = method.getAccessModifier() != null ? method.getAccessModifier() : "";
+        double visibility;
+        if (modifiers.contains("public")) {
+            visibility = 1.0;
+        } else if (modifiers.contains("protected")) {
+            visibility = 0.6;
+        } else if (modifiers.contains("private")) {
+            visibility = 0.1;
+        } else {
+            visibility = 0.4; //package-private
+        }
+
+        double size = 1 + Math.log(lineCount(method));
+        double coverageGap = method.getCoverage() != null ? 1 - method.getCoverage().getScore() : 1.0;
+
+        return visibility * size * coverageGap;
+    }
+
+
+    private int lineCount(MethodMetaData method) {
+        if (method.getStartLine() <= 0 || method.getEndLine() < method.getStartLine()) {
+            return UNKNOWN_METHOD_LINES;
+        }
+        return method.getEndLine() - method.getStartLine() + 1;
+    }
+
+
+    //One source class to generate a test class for, with its estimated token cost and value.
+    public record ClassJob(String className, List<MethodMetaData> methods, long estimatedTokens, double value) {
+    }
+
+
+    //Wall-clock and token budget of a single run.
+    public class Budget {
+        private final long startNanos;
+        private final long maxNanos; //0 = no time limit
+        private final long startTokens;
+        private final long maxTokens; //0 = no token limit
+
+        private Budget(long startNanos, long maxNanos, long startTokens, long maxTokens) {
+            this.startNanos = startNanos;
+            this.maxNanos = maxNanos;
+            this.startTokens = startTokens;
+            this.maxTokens = maxTokens;
+        }
+
+        public boolean isExhausted() {
+            if (maxNanos > 0 && System.nanoTime() - startNanos >= maxNanos) {
+                return true;
+            }
+            return maxTokens > 0 && aiService.getTokensUsed() - startTokens >= maxTokens;
+        }
+    }
+}
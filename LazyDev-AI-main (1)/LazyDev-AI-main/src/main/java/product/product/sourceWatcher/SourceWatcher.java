@@ -0,0 +1,272 @@
+package product.product.sourceWatcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import product.product.classpathResolver.ClasspathResolver;
+import product.product.codeAnalyzer.CodeAnalyzer;
+import product.product.configuration.Config;
+import product.product.dto.MethodMetaData;
+import product.product.testGenerator.TestGenerator;
+import product.product.testValidator.TestValidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/*
+
+Role of this class :
+- Watch mode (lazydev watch <source_folder>): keeps the generated tests in sync while the developer edits code.
+- Instead of re-running the whole pipeline on every save, only the changed files are re-analyzed and
+  only the methods whose fingerprint (signature + body) changed get their tests regenerated.
+- Afterwards only the affected test classes are run (mvn test -Dtest=...).
+
+How it works:
+- One full analysis at start-up remembers the fingerprint of every method (className#signature -> fingerprint).
+- A WatchService covers every folder of the source tree (new folders are registered as they appear).
+- Events are collected until the tree has been quiet for lazydev.watch-debounce-ms, so an IDE saving
+  many files at once (or a branch switch) leads to one regeneration round.
+- Stale generated blocks are replaced in place by TestGenerator/TestClassMerger (fingerprinted markers).
+- Generated blocks of methods that no longer exist (removed, or renamed/re-typed so their className#signature
+  key changed) are cut out of the test classes first, so they don't call code that is gone.
+- A file that doesn't parse (saved half-typed) is skipped for the round, its methods and tests stay as they were.
+ */
+@Component
+public class SourceWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceWatcher.class);
+
+    private final Config config;
+    private final CodeAnalyzer codeAnalyzer;
+    private final ClasspathResolver classpathResolver;
+    private final TestGenerator testGenerator;
+    private final TestValidator testValidator;
+
+    private final Map<String, String> fingerprints = new HashMap<>(); //className#signature -> fingerprint
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private Path sourceRoot;
+
+
+    public SourceWatcher(Config config, CodeAnalyzer codeAnalyzer, ClasspathResolver classpathResolver,
+                         TestGenerator testGenerator, TestValidator testValidator) {
+        this.config = config;
+        this.codeAnalyzer = codeAnalyzer;
+        this.classpathResolver = classpathResolver;
+        this.testGenerator = testGenerator;
+        this.testValidator = testValidator;
+    }
+
+
+    //Blocks and regenerates tests for changed methods until the process is stopped.
+    public void watch(String sourceFolderPath, String projectRootPath) {
+        sourceRoot = Paths.get(sourceFolderPath).toAbsolutePath().normalize();
+        if (!Files.isDirectory(sourceRoot)) {
+            LOGGER.error(" Invalid source folder provided: {}", sourceFolderPath);
+            return;
+        }
+
+        // The classpath doesn't change while watching sources, resolve it once
+        List<String> classpath = classpathResolver.resolve(projectRootPath);
+        for (MethodMetaData method : codeAnalyzer.analyzeSource(sourceFolderPath, classpath)) {
+            fingerprints.put(method.getKey(), method.getFingerprint());
+        }
+        LOGGER.info(" Watching {} ({} methods known).", sourceRoot, fingerprints.size());
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            registerTree(watchService, sourceRoot);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changedFiles = awaitChanges(watchService);
+                if (!changedFiles.isEmpty()) {
+                    regenerate(changedFiles, classpath, projectRootPath);
+                }
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.info(" Watch mode stopped.");
+        } catch (Exception e) {
+            LOGGER.error(" Watch mode failed: {}", e.getMessage(), e);
+        }
+    }
+
+
+    /*
+     - Waits for the first event, then keeps collecting until no event arrived for the debounce interval.
+     - returns the changed (or deleted) .java files of this round.
+     */
+    private Set<Path> awaitChanges(WatchService watchService) throws InterruptedException {
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            collectEvents(watchService, key, changedFiles);
+            key = watchService.poll(config.getWatchDebounceMs(), TimeUnit.MILLISECONDS);
+        }
+        return changedFiles;
+    }
+
+
+    private void collectEvents(WatchService watchService, WatchKey key, Set<Path> changedFiles) {
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || directory == null) {
+                continue;
+            }
+            Path changed = directory.resolve((Path) event.context());
+
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+                try {
+                    registerTree(watchService, changed);
+                    // Files may have been written into the new folder before it was registered
+                    try (var files = Files.walk(changed)) {
+                        files.filter(this::isJavaFile).forEach(changedFiles::add);
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn(" Failed to watch new folder {}: {}", changed, e.getMessage());
+                }
+            } else if (isJavaFile(changed) || event.kind() == ENTRY_DELETE) {
+                changedFiles.add(changed);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key); // folder was deleted
+        }
+    }
+
+
+    //Re-analyzes the changed files, regenerates tests for new/changed methods and runs only the affected test classes.
+    private void regenerate(Set<Path> changedFiles, List<String> classpath, String projectRootPath) {
+        try {
+            // Files that don't parse (yet) are left out of this round, their next save triggers a new one
+            changedFiles = new LinkedHashSet<>(changedFiles);
+            List<MethodMetaData> analyzed = analyzeChangedFiles(changedFiles, classpath);
+            if (changedFiles.isEmpty()) {
+                return;
+            }
+
+            List<MethodMetaData> changedMethods = new ArrayList<>();
+            for (MethodMetaData method : analyzed) {
+                String previous = fingerprints.put(method.getKey(), method.getFingerprint());
+                if (previous == null || !previous.equals(method.getFingerprint())) {
+                    changedMethods.add(method);
+                }
+            }
+            Set<String> removedKeys = forgetRemovedMethods(changedFiles, analyzed);
+
+            if (changedMethods.isEmpty() && removedKeys.isEmpty()) {
+                LOGGER.info(" {} file(s) changed, no method changed.", changedFiles.size());
+                return;
+            }
+
+            // Old blocks first, so the regenerated tests don't clash with tests of the previous signature
+            if (!removedKeys.isEmpty()) {
+                LOGGER.info(" {} method(s) no longer exist, removing their generated tests.", removedKeys.size());
+                testGenerator.removeGeneratedTests(removedKeys, projectRootPath);
+            }
+            if (!changedMethods.isEmpty()) {
+                LOGGER.info(" {} file(s) changed, regenerating tests for {} method(s).", changedFiles.size(), changedMethods.size());
+                testGenerator.regenerateTests(changedMethods, projectRootPath);
+            }
+
+            // Test classes of the changed methods and of classes that lost methods (if they still exist)
+            Set<String> analyzedClasses = new HashSet<>();
+            analyzed.forEach(method -> analyzedClasses.add(method.getClassName()));
+            Set<String> testClasses = new LinkedHashSet<>();
+            changedMethods.forEach(method -> testClasses.add(method.getClassName() + "Test"));
+            removedKeys.stream()
+                    .map(key -> key.substring(0, key.indexOf('#')))
+                    .filter(analyzedClasses::contains)
+                    .forEach(className -> testClasses.add(className + "Test"));
+            if (!testClasses.isEmpty()) {
+                testValidator.runTests(projectRootPath, new ArrayList<>(testClasses));
+            }
+
+        } catch (Exception e) {
+            LOGGER.error(" Failed to regenerate tests for changed files: {}", e.getMessage(), e);
+        }
+    }
+
+
+    /*
+     - Analyzes the changed files that still exist.
+     - If Spoon fails on the whole set, each file is analyzed on its own and the ones that fail are removed
+       from changedFiles: a half-typed file must not look like a file whose methods were all deleted.
+     */
+    private List<MethodMetaData> analyzeChangedFiles(Set<Path> changedFiles, List<String> classpath) {
+        List<File> javaFiles = changedFiles.stream().filter(this::isJavaFile).map(Path::toFile).toList();
+        try {
+            return codeAnalyzer.analyzeFiles(javaFiles, classpath);
+        } catch (Exception e) {
+            LOGGER.debug(" Analysis of {} changed file(s) failed, analyzing them one by one: {}", javaFiles.size(), e.getMessage());
+        }
+
+        List<MethodMetaData> analyzed = new ArrayList<>();
+        for (File javaFile : javaFiles) {
+            try {
+                analyzed.addAll(codeAnalyzer.analyzeFiles(List.of(javaFile), classpath));
+            } catch (Exception e) {
+                LOGGER.warn(" Skipping {} until it compiles again: {}", javaFile, e.getMessage());
+                changedFiles.remove(javaFile.toPath());
+            }
+        }
+        return analyzed;
+    }
+
+
+    /*
+     - Drops the fingerprints of methods that no longer exist, so re-adding them later counts as a change.
+     - That's every known method of a changed (or deleted) file's classes that wasn't found again,
+       including the old key of a method whose signature changed.
+     - returns the keys (className#signature) of the removed methods.
+     */
+    private Set<String> forgetRemovedMethods(Set<Path> changedFiles, List<MethodMetaData> analyzed) {
+        Set<String> currentKeys = new HashSet<>();
+        analyzed.forEach(method -> currentKeys.add(method.getKey()));
+
+        // Top-level class of each changed file, from its path below the source root
+        Set<String> changedClassNames = new HashSet<>();
+        for (Path file : changedFiles) {
+            if (isJavaFile(file) && file.startsWith(sourceRoot)) {
+                String relativePath = sourceRoot.relativize(file).toString();
+                changedClassNames.add(relativePath.substring(0, relativePath.length() - ".java".length())
+                        .replace(File.separatorChar, '.'));
+            }
+        }
+
+        Set<String> removedKeys = new HashSet<>();
+        fingerprints.keySet().removeIf(key -> {
+            String className = key.substring(0, key.indexOf('#'));
+            int nested = className.indexOf('$');
+            String topLevelClassName = nested >= 0 ? className.substring(0, nested) : className;
+            if (changedClassNames.contains(topLevelClassName) && !currentKeys.contains(key)) {
+                removedKeys.add(key);
+                return true;
+            }
+            return false;
+        });
+        return removedKeys;
+    }
+
+
+    private void registerTree(WatchService watchService, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                watchedDirectories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+
+    private boolean isJavaFile(Path path) {
+        return path.getFileName().toString().endsWith(".java") && !Files.isDirectory(path);
+    }
+}
@@ -0,0 +1,346 @@
+package product.product.testGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import product.product.dto.MethodMetaData;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import spoon.reflect.code.CtComment;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtImport;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtPackageDeclaration;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+
+Role of this class :
+- Merges newly generated tests into an existing <Class>Test.java instead of overwriting it,
+  so hand-edited tests survive and methods that already have generated tests are not sent to the AI again.
+
+How generated tests are recognized:
+- Every generated block is wrapped in marker comments with the key of the source method (className#signature)
+  and the fingerprint of the method's signature + body at generation time:
+      // lazydev:begin com.example.Calculator#add(int,int) 3f2a9c0d11e4b7a8
+      @Test ...
+      // lazydev:end
+- The existing test class is parsed with Spoon (comments enabled) to collect these markers and the position
+  of the class' closing brace. New blocks (and missing imports) are inserted as text at those positions,
+  so everything else in the file keeps its exact formatting.
+- A block whose fingerprint no longer matches the source method is stale: it is regenerated and the old
+  block is cut out of the file (markers without a fingerprint are always treated as current).
+- Tests outside any marker (hand-written, or written by earlier versions without markers) are recognized by
+  naming convention: a @Test method test<Method>..., <method>_... or <method>Should... covers the source method,
+  which is then not sent to the AI again.
+- Generated test methods whose name is already taken in the class are renamed (testAdd -> testAdd_2),
+  so the merged class still compiles.
+ */
+@Component
+public class TestClassMerger {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestClassMerger.class);
+
+    private static final String MARKER_BEGIN = "lazydev:begin ";
+    private static final String MARKER_END = "lazydev:end";
+
+    //Words that may follow the method name in a hand-written test name (addShouldThrow, addWhenEmpty, ...).
+    private static final List<String> SCENARIO_WORDS = List.of("Should", "When", "Returns", "Return", "Throws",
+            "Throw", "With", "Without", "Given", "If", "On", "For", "Fails", "Succeeds", "Works");
+
+    /*
+     - Declaration of a JUnit test method in generated code: a test annotation, further annotations and modifiers,
+       the return type, then the name (group 2). Helper methods and methods of anonymous classes don't match.
+     */
+    private static final String ANNOTATION_ARGUMENTS = "(?:\\s*\\((?:[^()]|\\([^()]*\\))*\\))?";
+    private static final Pattern TEST_METHOD_DECLARATION = Pattern.compile(
+            "(@(?:[\\w.]*\\.)?(?:Test|ParameterizedTest|RepeatedTest|TestFactory|TestTemplate)\\b" + ANNOTATION_ARGUMENTS
+                    + "(?:\\s+@[\\w.]+" + ANNOTATION_ARGUMENTS + ")*"
+                    + "(?:\\s+(?:public|protected|private|static|final))*"
+                    + "\\s+[\\w.<>\\[\\],? ]+?\\s+)(\\w+)(\\s*\\()");
+
+
+    /*
+     - Parses an existing test class.
+     - returns null if the file cannot be parsed or doesn't declare the test class (it must not be touched then).
+     */
+    public ExistingTestClass read(File testFile, String testClassName) {
+        try {
+            String content = Files.readString(testFile.toPath(), StandardCharsets.UTF_8);
+
+            Launcher launcher = new Launcher();
+            launcher.addInputResource(testFile.getAbsolutePath());
+            launcher.getEnvironment().setNoClasspath(true);
+            launcher.getEnvironment().setCommentEnabled(true);
+            CtModel model = launcher.buildModel();
+
+            CtType<?> testType = model.getAllTypes().stream()
+                    .filter(type -> type.getSimpleName().equals(testClassName))
+                    .findFirst()
+                    .orElse(null);
+            if (testType == null || !testType.getPosition().isValidPosition()) {
+                LOGGER.warn(" {} does not declare {}, leaving it untouched.", testFile.getAbsolutePath(), testClassName);
+                return null;
+            }
+
+            // Marker comments in source order, each begin marker is closed by the next end marker
+            List<CtComment> markers = testType.getElements(new TypeFilter<>(CtComment.class)).stream()
+                    .filter(comment -> comment.getPosition().isValidPosition())
+                    .filter(comment -> comment.getContent().trim().startsWith(MARKER_BEGIN)
+                            || comment.getContent().trim().equals(MARKER_END))
+                    .sorted(Comparator.comparingInt(comment -> comment.getPosition().getSourceStart()))
+                    .toList();
+
+            // Source methods that already have generated tests
+            Map<String, GeneratedBlock> generatedBlocks = new HashMap<>();
+            for (int i = 0; i < markers.size(); i++) {
+                String text = markers.get(i).getContent().trim();
+                if (!text.startsWith(MARKER_BEGIN)) {
+                    continue;
+                }
+                String[] keyAndFingerprint = text.substring(MARKER_BEGIN.length()).trim().split("\\s+");
+                String fingerprint = keyAndFingerprint.length > 1 ? keyAndFingerprint[1] : null;
+
+                int start = markers.get(i).getPosition().getSourceStart();
+                int end = -1;
+                if (i + 1 < markers.size() && markers.get(i + 1).getContent().trim().equals(MARKER_END)) {
+                    end = markers.get(i + 1).getPosition().getSourceEnd() + 1;
+                }
+                generatedBlocks.put(keyAndFingerprint[0], new GeneratedBlock(fingerprint, start, end));
+            }
+
+            // Methods already declared in the class (names must not be reused, tests may cover source methods by name)
+            List<TestMethod> testMethods = new ArrayList<>();
+            for (CtMethod<?> method : testType.getMethods()) {
+                int start = method.getPosition().isValidPosition() ? method.getPosition().getSourceStart() : -1;
+                boolean isTest = method.getAnnotations().stream()
+                        .anyMatch(annotation -> annotation.getAnnotationType().getSimpleName().endsWith("Test"));
+                testMethods.add(new TestMethod(method.getSimpleName(), start, isTest));
+            }
+
+            // Spoon's source end is the (inclusive) offset of the closing brace of the class
+            SourcePosition position = testType.getPosition();
+            return new ExistingTestClass(content, generatedBlocks, testMethods, position.getSourceEnd(),
+                    importInsertionOffset(content, position.getCompilationUnit()));
+
+        } catch (Exception e) {
+            LOGGER.error(" Failed to parse existing test class {}: {}", testFile.getAbsolutePath(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+
+    //Wraps one generated (already indented) test block in the marker comments of its source method.
+    public String markGeneratedBlock(MethodMetaData method, String indentedTestCode) {
+        String fingerprint = method.getFingerprint() != null ? " " + method.getFingerprint() : "";
+        return "    // " + MARKER_BEGIN + method.getKey() + fingerprint + "\n"
+                + indentedTestCode
+                + "    // " + MARKER_END + "\n";
+    }
+
+
+    /*
+     - Renames test methods of the generated code whose name is already taken (testAdd -> testAdd_2).
+     - takenNames -> method names of the class, the new names are added to it.
+     */
+    public String renameClashingTests(String testCode, Set<String> takenNames) {
+        Matcher matcher = TEST_METHOD_DECLARATION.matcher(testCode);
+        StringBuilder renamed = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group(2);
+            String uniqueName = name;
+            for (int suffix = 2; takenNames.contains(uniqueName); suffix++) {
+                uniqueName = name + "_" + suffix;
+            }
+            takenNames.add(uniqueName);
+            matcher.appendReplacement(renamed, Matcher.quoteReplacement(matcher.group(1) + uniqueName + matcher.group(3)));
+        }
+        matcher.appendTail(renamed);
+        return renamed.toString();
+    }
+
+
+    /*
+     - Inserts the new test blocks before the closing brace of the existing class, removes the stale blocks
+       of the regenerated methods and adds the imports the class lacks.
+     - The rest of the file is kept byte for byte.
+     */
+    public String merge(ExistingTestClass existing, String newBlocks, List<MethodMetaData> regeneratedMethods,
+                        List<String> requiredImports) {
+        String content = existing.content();
+        int closingBrace = existing.closingBraceOffset();
+
+        // Class body first, so neither the block removal nor the import insertion shift the brace offset
+        String merged = content.substring(0, closingBrace) + "\n" + newBlocks + content.substring(closingBrace);
+
+        // Stale blocks (all before the brace, so their offsets are still valid)
+        merged = cutBlocks(merged, existing.blocksReplacedBy(regeneratedMethods));
+
+        StringBuilder missingImports = new StringBuilder();
+        for (String importLine : requiredImports) {
+            if (!merged.contains(importLine)) {
+                missingImports.append(importLine).append("\n");
+            }
+        }
+        if (missingImports.length() == 0) {
+            return merged;
+        }
+
+        // Imports and package declaration are before the class, the merge above didn't move them
+        int insertAt = existing.importInsertionOffset();
+        return merged.substring(0, insertAt) + missingImports + merged.substring(insertAt);
+    }
+
+
+    /*
+     - Removes the generated blocks of source methods that no longer exist (keys = className#signature).
+     - returns the new file content, or the unchanged content if the class has no block for these keys.
+     */
+    public String removeBlocks(ExistingTestClass existing, Collection<String> removedKeys) {
+        List<GeneratedBlock> blocks = removedKeys.stream()
+                .map(key -> existing.generatedBlocks().get(key))
+                .filter(block -> block != null && block.end() > block.start())
+                .distinct()
+                .toList();
+        return cutBlocks(existing.content(), blocks);
+    }
+
+
+    //Cuts the blocks (whole lines) out of the content, from the last one backwards so earlier offsets stay valid.
+    private String cutBlocks(String content, List<GeneratedBlock> blocks) {
+        List<GeneratedBlock> sorted = blocks.stream()
+                .sorted(Comparator.comparingInt(GeneratedBlock::start).reversed())
+                .toList();
+        for (GeneratedBlock block : sorted) {
+            int from = content.lastIndexOf('\n', block.start() - 1) + 1; // whole lines, including the indentation
+            int newline = content.indexOf('\n', block.end());
+            int to = newline >= 0 && content.substring(block.end(), newline).isBlank() ? newline + 1 : block.end();
+            content = content.substring(0, from) + content.substring(to);
+        }
+        return content;
+    }
+
+
+    //Line start after the last import, else after the package declaration, else the start of the file.
+    private int importInsertionOffset(String content, CompilationUnit compilationUnit) {
+        int declarationEnd = compilationUnit.getImports().stream()
+                .map(CtImport::getPosition)
+                .filter(SourcePosition::isValidPosition)
+                .mapToInt(SourcePosition::getSourceEnd)
+                .max()
+                .orElse(-1);
+        CtPackageDeclaration packageDeclaration = compilationUnit.getPackageDeclaration();
+        if (declarationEnd < 0 && packageDeclaration != null && packageDeclaration.getPosition().isValidPosition()) {
+            declarationEnd = packageDeclaration.getPosition().getSourceEnd();
+        }
+        if (declarationEnd < 0) {
+            return 0;
+        }
+        int newline = content.indexOf('\n', declarationEnd);
+        return newline >= 0 ? newline + 1 : content.length();
+    }
+
+
+    /*
+     - content -> the file as it is on disk.
+     - generatedBlocks -> className#signature of the source methods that already have generated tests.
+     - testMethods -> all methods declared in the class.
+     - closingBraceOffset -> offset of the class' closing brace in content.
+     - importInsertionOffset -> line start after the last import (or the package declaration) in content.
+     */
+    public record ExistingTestClass(String content, Map<String, GeneratedBlock> generatedBlocks,
+                                    List<TestMethod> testMethods, int closingBraceOffset, int importInsertionOffset) {
+
+        /*
+         - true if the class has a current generated test for the method (the method didn't change since),
+           or, without a marker for it, a test outside the generated blocks that covers it by naming convention.
+         */
+        public boolean hasGeneratedTestFor(MethodMetaData method) {
+            GeneratedBlock block = generatedBlocks.get(method.getKey());
+            if (block == null) {
+                return testMethods.stream()
+                        .filter(testMethod -> testMethod.isTest() && !isInsideGeneratedBlock(testMethod))
+                        .anyMatch(testMethod -> coversByName(testMethod.name(), method.getMethodName()));
+            }
+            return block.fingerprint() == null || method.getFingerprint() == null
+                    || block.fingerprint().equals(method.getFingerprint());
+        }
+
+        //Blocks that merge() cuts out when these methods get new tests (their previous generated block).
+        public List<GeneratedBlock> blocksReplacedBy(List<MethodMetaData> regeneratedMethods) {
+            return regeneratedMethods.stream()
+                    .map(method -> generatedBlocks.get(method.getKey()))
+                    .filter(block -> block != null && block.end() > block.start())
+                    .distinct()
+                    .toList();
+        }
+
+        //Method names still declared after merge() replaced the blocks of these methods.
+        public Set<String> keptMethodNames(List<MethodMetaData> regeneratedMethods) {
+            List<GeneratedBlock> replaced = blocksReplacedBy(regeneratedMethods);
+            Set<String> names = new HashSet<>();
+            for (TestMethod testMethod : testMethods) {
+                boolean removed = replaced.stream().anyMatch(block -> block.contains(testMethod.start()));
+                if (!removed) {
+                    names.add(testMethod.name());
+                }
+            }
+            return names;
+        }
+
+        private boolean isInsideGeneratedBlock(TestMethod testMethod) {
+            return generatedBlocks.values().stream().anyMatch(block -> block.contains(testMethod.start()));
+        }
+    }
+
+
+    /*
+     - Naming convention for tests that weren't generated with markers:
+       an optional "test" prefix, then the source method name, then the end of the name, '_', a digit
+       or a word that starts the scenario (Should, When, Returns, ...).
+     - testAdd, testAdd_negativeNumbers, add_returnsSum, addShouldThrow cover add(),
+       testAddress and testAddAll (a test of addAll()) don't.
+     */
+    static boolean coversByName(String testMethodName, String sourceMethodName) {
+        String name = testMethodName;
+        if (name.regionMatches(true, 0, "test", 0, 4) && name.length() > 4) {
+            name = name.substring(4);
+        }
+        while (name.startsWith("_")) {
+            name = name.substring(1);
+        }
+        if (!name.regionMatches(true, 0, sourceMethodName, 0, sourceMethodName.length())) {
+            return false;
+        }
+        String rest = name.substring(sourceMethodName.length());
+        if (rest.isEmpty() || rest.charAt(0) == '_' || Character.isDigit(rest.charAt(0))) {
+            return true;
+        }
+        return SCENARIO_WORDS.stream().anyMatch(word -> rest.startsWith(word)
+                && (rest.length() == word.length() || !Character.isLowerCase(rest.charAt(word.length()))));
+    }
+
+    /*
+     One generated block in the existing file.
+     - start -> offset of the begin marker, end -> offset right after the end marker (-1 if it has none).
+     */
+    public record GeneratedBlock(String fingerprint, int start, int end) {
+
+        boolean contains(int offset) {
+            return offset >= start && offset < end;
+        }
+    }
+
+    //A method declared in the existing test class (start = source offset, -1 if unknown).
+    public record TestMethod(String name, int start, boolean isTest) {
+    }
+}
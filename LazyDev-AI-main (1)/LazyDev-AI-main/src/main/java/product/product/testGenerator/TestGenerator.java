@@ -6,12 +6,22 @@ import org.springframework.stereotype.Component;
 import product.product.ai.AIService;
 import product.product.configuration.Config;
 import product.product.dto.MethodMetaData;
+import product.product.runJournal.RunJournal;
+import product.product.scheduler.GenerationScheduler;
+import product.product.scheduler.GenerationScheduler.Budget;
+import product.product.scheduler.GenerationScheduler.ClassJob;
+import product.product.testGenerator.TestClassMerger.ExistingTestClass;
 import product.product.utility.CodeSanitizer;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 
 @Component
@@ -22,12 +32,19 @@ public class TestGenerator {
     private final Config config;
     private final AIService aiService;
     private final CodeSanitizer codeSanitizer;
+    private final RunJournal runJournal;
+    private final GenerationScheduler scheduler;
+    private final TestClassMerger testClassMerger;
 
 
-    public TestGenerator(Config config, AIService aiService, CodeSanitizer codeSanitizer) {
+    public TestGenerator(Config config, AIService aiService, CodeSanitizer codeSanitizer,
+                         RunJournal runJournal, GenerationScheduler scheduler, TestClassMerger testClassMerger) {
         this.config = config;
         this.aiService = aiService;
         this.codeSanitizer = codeSanitizer;
+        this.runJournal = runJournal;
+        this.scheduler = scheduler;
+        this.testClassMerger = testClassMerger;
     }
 
     /*
@@ -37,51 +54,258 @@ public class TestGenerator {
      - projectRootPath  ->  Path to the project root to dynamically generate tests inside src/test/java.
      */
     public void generateTests(List<MethodMetaData> methodMetaDataList, String projectRootPath) {
-        String outputDirectory = projectRootPath + "/src/test/java"; //Target user's test directory ,src/test/java is used as the output location.
+        generateTests(methodMetaDataList, projectRootPath, false);
+    }
+
+    /*
+     - Same as above, every finished method and written class is recorded in the run journal.
+     - resume -> continue a killed run: classes already written are skipped and journaled methods are reused.
+     */
+    public void generateTests(List<MethodMetaData> methodMetaDataList, String projectRootPath, boolean resume) {
+        generateMissingTests(methodMetaDataList, projectRootPath, true, resume);
+    }
+
+    /*
+     - Regenerates the tests of methods changed while watching, without touching the run journal
+       (it belongs to the interactive run a later --resume continues).
+     */
+    public void regenerateTests(List<MethodMetaData> methodMetaDataList, String projectRootPath) {
+        generateMissingTests(methodMetaDataList, projectRootPath, false, false);
+    }
 
+    private void generateMissingTests(List<MethodMetaData> methodMetaDataList, String projectRootPath,
+                                      boolean journaled, boolean resume) {
         if (methodMetaDataList == null || methodMetaDataList.isEmpty()) {
             LOGGER.warn(" No methods provided for test generation.");
             return;
         }
+        // Methods whose tests are current are left out before planning, so they don't take budget or slots
+        List<MethodMetaData> missing = methodsWithoutGeneratedTests(methodMetaDataList, projectRootPath);
+        if (missing.isEmpty()) {
+            LOGGER.info(" All {} selected methods already have generated tests, nothing to generate.", methodMetaDataList.size());
+            return;
+        }
+
+        // One test class per source class, ordered by value within the time/token budget
+        runGeneration(scheduler.plan(missing), projectRootPath, journaled, resume,
+                aiService::generateTestForMethod, scheduler.startBudget());
+    }
+
+    /*
+     - Assembles test classes from tests that were already generated elsewhere (bulk/batch mode), without AI calls.
+     - generatedTests -> raw AI output per method key (className#signature). Methods without a result are skipped,
+       so the next bulk run submits them again.
+     - The run journal of interactive runs (--resume) is left untouched.
+     */
+    public void assembleTests(List<MethodMetaData> methodMetaDataList, String projectRootPath, Map<String, String> generatedTests) {
+        List<MethodMetaData> withResult = methodMetaDataList.stream()
+                .filter(method -> generatedTests.containsKey(method.getKey()))
+                .toList();
+        if (withResult.size() < methodMetaDataList.size()) {
+            LOGGER.warn(" {} methods have no batch result and are left for the next bulk run.",
+                    methodMetaDataList.size() - withResult.size());
+        }
+        runGeneration(scheduler.plan(withResult, 0), projectRootPath, false, false,
+                method -> generatedTests.get(method.getKey()), scheduler.unlimitedBudget());
+    }
+
+    /*
+     - Cuts the generated tests of source methods that no longer exist out of their test classes
+       (removedKeys = className#signature, e.g. the old key of a method whose signature changed).
+     - Hand-written tests in those classes are left alone.
+     */
+    public void removeGeneratedTests(Collection<String> removedKeys, String projectRootPath) {
+        String outputDirectory = projectRootPath + "/src/test/java";
+        Map<String, List<String>> keysByClass = new LinkedHashMap<>();
+        for (String key : removedKeys) {
+            keysByClass.computeIfAbsent(key.substring(0, key.indexOf('#')), k -> new ArrayList<>()).add(key);
+        }
+
+        for (Map.Entry<String, List<String>> entry : keysByClass.entrySet()) {
+            String sourceClassName = entry.getKey();
+            String testClassName = sourceClassName.substring(sourceClassName.lastIndexOf('.') + 1) + "Test";
+            String packageName = extractPackageName(sourceClassName);
+            File testFile = testFileOf(outputDirectory, packageName, testClassName);
+            if (!testFile.exists()) {
+                continue;
+            }
+
+            ExistingTestClass existing = testClassMerger.read(testFile, testClassName);
+            if (existing == null) {
+                continue;
+            }
+            String updated = testClassMerger.removeBlocks(existing, entry.getValue());
+            if (!updated.equals(existing.content())) {
+                writeTestFile(updated, outputDirectory, packageName, testClassName);
+            }
+        }
+    }
+
+    //returns the methods that don't have a generated test in their existing test class yet (all, if there is none).
+    public List<MethodMetaData> methodsWithoutGeneratedTests(List<MethodMetaData> methodMetaDataList, String projectRootPath) {
+        String outputDirectory = projectRootPath + "/src/test/java";
+        Map<String, ExistingTestClass> existingClasses = new HashMap<>();
+        List<MethodMetaData> missing = new ArrayList<>();
+
+        for (MethodMetaData method : methodMetaDataList) {
+            String sourceClassName = method.getClassName();
+            String testClassName = sourceClassName.substring(sourceClassName.lastIndexOf('.') + 1) + "Test";
+            File testFile = testFileOf(outputDirectory, extractPackageName(sourceClassName), testClassName);
+
+            ExistingTestClass existing = existingClasses.computeIfAbsent(sourceClassName,
+                    k -> testFile.exists() ? testClassMerger.read(testFile, testClassName) : null);
+            if (existing == null || !existing.hasGeneratedTestFor(method)) {
+                missing.add(method);
+            }
+        }
+        return missing;
+    }
+
+    /*
+     - Shared generation loop over the planned classes (one test class per source class).
+     - journaled -> record the run in the run journal (and replay it if resume is set).
+     - testSource -> produces the raw test code of one method (the AI call, or a lookup of bulk results).
+     - budget -> checked before every testSource call.
+     */
+    private void runGeneration(List<ClassJob> jobs, String projectRootPath, boolean journaled, boolean resume,
+                               Function<MethodMetaData, String> testSource, Budget budget) {
+        String outputDirectory = projectRootPath + "/src/test/java"; //Target user's test directory ,src/test/java is used as the output location.
+
+        if (jobs.isEmpty()) {
+            LOGGER.warn(" No methods provided for test generation.");
+            return;
+        }
 
         LOGGER.info(" Generating test classes in: {}", outputDirectory);
 
-        // Group methods by class name for one test class per source class
-        Map<String, List<MethodMetaData>> classMethodMap = new HashMap<>();
-        for (MethodMetaData metaData : methodMetaDataList) {
-            classMethodMap.computeIfAbsent(metaData.getClassName(), k -> new ArrayList<>()).add(metaData);
+        AtomicInteger writtenClasses = new AtomicInteger();
+
+        // Generate test classes (on lazydev.generation-threads threads)
+        if (journaled) {
+            runJournal.open(projectRootPath, resume);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getGenerationThreads()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ClassJob job : jobs) {
+                if (journaled && runJournal.isClassWritten(job.className())) {
+                    LOGGER.info(" Skipping {}, test class already written in the resumed run.", job.className());
+                    continue;
+                }
+                futures.add(executor.submit(() -> {
+                    if (generateTestClass(job.className(), job.methods(), outputDirectory, journaled, testSource, budget)) {
+                        writtenClasses.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            LOGGER.error(" Test generation interrupted: {}", e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+            if (journaled) {
+                runJournal.close();
+            }
         }
 
-        // Generate test classes
-        for (Map.Entry<String, List<MethodMetaData>> entry : classMethodMap.entrySet()) {
-            String className = entry.getKey();
-            List<MethodMetaData> methods = entry.getValue();
-            generateTestClass(className, methods, outputDirectory);
+        if (budget.isExhausted()) {
+            LOGGER.warn(" Run budget exhausted, stopped cleanly after writing {} test classes.", writtenClasses.get());
+        }
+        if (config.isHedgeEnabled()) {
+            LOGGER.info(" Hedged AI requests so far: {} issued, {} won.", aiService.getHedgesIssued(), aiService.getHedgesWon());
         }
     }
 
 
 
-    //Generates a test class for a specific Java class with multiple methods.
-    private void generateTestClass(String sourceClassName, List<MethodMetaData> methods, String outputDirectory) {
+    /*
+     - Generates a test class for a specific Java class with multiple methods.
+     - If the test class already exists, only methods without a generated test are requested and merged into it.
+     - Failed AI calls are left out (no marker), so the next run requests those methods again.
+     - Test method names already used in the class are not reused (the generated ones get a suffix).
+     - returns false if the class was not (completely) written: budget ran out, or some AI calls failed.
+     */
+    private boolean generateTestClass(String sourceClassName, List<MethodMetaData> methods, String outputDirectory,
+                                      boolean journaled, Function<MethodMetaData, String> testSource, Budget budget) {
         String simpleClassName = sourceClassName.substring(sourceClassName.lastIndexOf('.') + 1);
         String testClassName = simpleClassName + "Test";
         String packageName = extractPackageName(sourceClassName);
 
-        StringBuilder testMethodsBlock = new StringBuilder();
+        //Existing test class -> keep it and only add what's missing
+        File testFile = testFileOf(outputDirectory, packageName, testClassName);
+        ExistingTestClass existing = null;
+        if (testFile.exists()) {
+            existing = testClassMerger.read(testFile, testClassName);
+            if (existing == null) {
+                return false; // Unparseable file, never overwrite hand-written tests
+            }
+            ExistingTestClass existingClass = existing;
+            methods = methods.stream().filter(method -> !existingClass.hasGeneratedTestFor(method)).toList();
+            if (methods.isEmpty()) {
+                LOGGER.info(" {} already has tests for all selected methods, nothing to do.", testClassName);
+                if (journaled) {
+                    runJournal.recordClassWritten(sourceClassName);
+                }
+                return true;
+            }
+        }
+
+        Map<MethodMetaData, String> generatedTests = new LinkedHashMap<>();
 
-        //Generates AI-based test methods and sanitize each one
+        //Generates AI-based test methods and sanitize each one (methods from a resumed run come from the journal)
         for (MethodMetaData method : methods) {
-            String aiGeneratedTest = aiService.generateTestForMethod(method);
-            String sanitizedTest = codeSanitizer.cleanAICode(aiGeneratedTest);
-            testMethodsBlock.append(indentTestMethod(sanitizedTest)).append("\n\n"); // Properly indented and cleaned
+            String sanitizedTest = journaled ? runJournal.getCompletedTest(method) : null;
+            if (sanitizedTest == null) {
+                if (budget.isExhausted()) {
+                    LOGGER.info(" Budget exhausted, {} left incomplete (finished methods are kept for --resume).", sourceClassName);
+                    return false;
+                }
+                String aiGeneratedTest = testSource.apply(method);
+                sanitizedTest = codeSanitizer.cleanAICode(aiGeneratedTest);
+                if (sanitizedTest.startsWith(AIService.FAILED_TEST_PREFIX)) {
+                    LOGGER.warn(" No test for {}, it will be requested again on the next run.", method.getKey());
+                    continue;
+                }
+                if (journaled) {
+                    runJournal.recordMethod(method, sanitizedTest);
+                }
+            }
+            generatedTests.put(method, sanitizedTest);
+        }
+
+        if (generatedTests.isEmpty()) {
+            LOGGER.warn(" No tests generated for {}, test class not written.", sourceClassName);
+            return false;
+        }
+        List<MethodMetaData> generatedMethods = new ArrayList<>(generatedTests.keySet());
+
+        // Properly indented, cleaned, with unique method names and marked with the source method it covers
+        Set<String> takenNames = existing != null ? existing.keptMethodNames(generatedMethods) : new HashSet<>();
+        StringBuilder testMethodsBlock = new StringBuilder();
+        for (Map.Entry<MethodMetaData, String> entry : generatedTests.entrySet()) {
+            String testCode = testClassMerger.renameClashingTests(entry.getValue(), takenNames);
+            testMethodsBlock.append(testClassMerger.markGeneratedBlock(entry.getKey(), indentTestMethod(testCode))).append("\n");
         }
 
-        //Wrap methods in a full test class with imports and package
-        String finalTestClassCode = codeSanitizer.wrapInTestClass(packageName, testClassName, testMethodsBlock.toString());
+        //Merge into the existing class, or wrap methods in a full test class with imports and package
+        String finalTestClassCode = existing != null
+                ? testClassMerger.merge(existing, testMethodsBlock.toString(), generatedMethods, CodeSanitizer.TEST_IMPORTS)
+                : codeSanitizer.wrapInTestClass(packageName, testClassName, testMethodsBlock.toString());
 
         //Write to file
-        writeTestFile(finalTestClassCode, outputDirectory, packageName, testClassName);
+        if (!writeTestFile(finalTestClassCode, outputDirectory, packageName, testClassName)) {
+            return false;
+        }
+        // Incomplete classes are not journaled as written, so --resume merges the missing methods into them
+        if (generatedMethods.size() < methods.size()) {
+            return false;
+        }
+        if (journaled) {
+            runJournal.recordClassWritten(sourceClassName);
+        }
+        return true;
     }
 
 
@@ -96,30 +320,39 @@ public class TestGenerator {
     /*
       - Writes the final test class content to a .java file in src/test/java.
       - Creates necessary package directories (if they don't exist).
+      - returns true if the file was written.
      */
-    private void writeTestFile(String content, String outputDirectory, String packageName, String testClassName) {
+    private boolean writeTestFile(String content, String outputDirectory, String packageName, String testClassName) {
         try {
-            String packagePath = packageName.replace('.', File.separatorChar);
-            File targetDir = new File(outputDirectory + File.separator + packagePath);
+            File testFile = testFileOf(outputDirectory, packageName, testClassName);
+            File targetDir = testFile.getParentFile();
 
             if (!targetDir.exists() && targetDir.mkdirs()) {
                 LOGGER.info(" Created test directory: {}", targetDir.getAbsolutePath());
             }
 
-            File testFile = new File(targetDir, testClassName + ".java");
-
             try (FileWriter writer = new FileWriter(testFile)) {
                 writer.write(content);
                 LOGGER.info(" Test class generated: {}", testFile.getAbsolutePath());
             }
+            return true;
 
         } catch (IOException e) {
             LOGGER.error(" Failed to write test class for {}: {}", testClassName, e.getMessage(), e);
+            return false;
         }
     }
 
 
 
+    //Location of the test class inside src/test/java.
+    private File testFileOf(String outputDirectory, String packageName, String testClassName) {
+        String packagePath = packageName.replace('.', File.separatorChar);
+        return new File(outputDirectory + File.separator + packagePath, testClassName + ".java");
+    }
+
+
+
     //Extracts the package name from a fully qualified class name.
     private String extractPackageName(String qualifiedClassName) {
         int lastDotIndex = qualifiedClassName.lastIndexOf('.');
@@ -3,11 +3,15 @@ package product.product.testValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import product.product.classpathResolver.ClasspathResolver;
 import product.product.configuration.Config;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /*
 This class TestValidator, is responsible for dynamically running JUnit tests via Maven in the user's project.
@@ -18,57 +22,150 @@ public class TestValidator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TestValidator.class);
 
+    //JaCoCo goals wrapped around "test" when coverage has to be measured (no plugin setup needed in the user's pom).
+    private static final String JACOCO_PLUGIN = "org.jacoco:jacoco-maven-plugin:0.8.12";
+
     private final Config config;
+    private final ClasspathResolver classpathResolver;
+    private final ValidationCache validationCache;
 
 
-    public TestValidator(Config config) {
+    public TestValidator(Config config, ClasspathResolver classpathResolver, ValidationCache validationCache) {
         this.config = config;
+        this.classpathResolver = classpathResolver;
+        this.validationCache = validationCache;
     }
 
     //Runs Maven tests dynamically for user's project.
-    public void runTests(String projectRootPath) {
-        try {
-            LOGGER.info("🚀 Starting Maven test execution for project: {}", projectRootPath);
+    public boolean runTests(String projectRootPath) {
+        return runTests(projectRootPath, false);
+    }
 
-            // Detect OS and prepare Maven command
-            String mvnCommand = isWindows() ? "cmd.exe /c mvn test" : "mvn test";
+    /*
+     - Runs Maven tests for user's project, optionally instrumented with JaCoCo so target/site/jacoco/jacoco.xml is refreshed.
+     - While the cached project classpath is fresh, Maven runs offline (-o) and doesn't re-check remote repositories,
+       if it still misses an artifact offline the run is repeated online.
+     - Without coverage, test classes that passed before with unchanged inputs are skipped (ValidationCache).
+     - returns true if Maven exited successfully (or every test class was cached).
+     */
+    public boolean runTests(String projectRootPath, boolean withCoverage) {
+        return runMavenTests(projectRootPath, withCoverage, List.of());
+    }
 
-            // Build process inside project root
-            ProcessBuilder processBuilder = new ProcessBuilder(mvnCommand.split(" "));
-            processBuilder.directory(new File(projectRootPath)); // Set working dir where pom.xml exists
-            processBuilder.redirectErrorStream(true); // Combine stdout + stderr
+    /*
+     - Runs only the given test classes (fully qualified names), used by watch mode after a change.
+     - returns true if Maven exited successfully.
+     */
+    public boolean runTests(String projectRootPath, List<String> testClasses) {
+        return runMavenTests(projectRootPath, false, testClasses);
+    }
 
-            LOGGER.info("🔨 Executing Maven command: {}", mvnCommand);
 
-            // Start Maven process
-            Process process = processBuilder.start();
+    //Runs "mvn test" (all test classes if testClasses is empty) and retries online if offline mode misses artifacts.
+    private boolean runMavenTests(String projectRootPath, boolean withCoverage, List<String> testClasses) {
+        try {
+            LOGGER.info("🚀 Starting Maven test execution for project: {}", projectRootPath);
 
-            // Live read process output
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    System.out.println(line);
+            // Only the classes whose test source, target source or classpath changed since their last green run
+            // (a coverage run needs every test executed, so it bypasses the cache)
+            Map<String, String> staleClasses = null;
+            if (config.isValidationCacheEnabled() && !withCoverage) {
+                List<String> candidates = testClasses.isEmpty() ? validationCache.findTestClasses(projectRootPath) : testClasses;
+                if (!candidates.isEmpty()) {
+                    staleClasses = validationCache.staleTestClasses(projectRootPath, candidates);
+                    if (staleClasses.isEmpty()) {
+                        LOGGER.info(" All {} test classes are cached, nothing to run.", candidates.size());
+                        return true;
+                    }
+                    LOGGER.info(" Running {} of {} test classes.", staleClasses.size(), candidates.size());
+                    if (staleClasses.size() < candidates.size()) {
+                        testClasses = List.copyOf(staleClasses.keySet());
+                    }
                 }
             }
+            long runStart = System.currentTimeMillis();
+
+            boolean offline = config.isValidateOffline() && classpathResolver.isCacheFresh(projectRootPath);
+            MavenRun run = executeMaven(projectRootPath, withCoverage, offline, testClasses);
+            if (offline && run.missedOfflineArtifact()) {
+                LOGGER.info(" Maven is missing artifacts offline, repeating the test run online.");
+                run = executeMaven(projectRootPath, withCoverage, false, testClasses);
+            }
 
-            // Wait for process to complete and capture exit code
-            int exitCode = process.waitFor();
+            if (staleClasses != null) {
+                validationCache.recordResults(projectRootPath, staleClasses, run.exitCode() == 0, runStart);
+            }
 
             // Handle exit code
-            if (exitCode == 0) {
+            if (run.exitCode() == 0) {
                 LOGGER.info(" Tests executed successfully without errors.");
+                return true;
             } else {
-                LOGGER.error(" Tests failed. Please check the Maven output. Exit code: {}", exitCode);
+                LOGGER.error(" Tests failed. Please check the Maven output. Exit code: {}", run.exitCode());
             }
 
         } catch (Exception e) {
             LOGGER.error(" Error during test validation: {}", e.getMessage(), e);
         }
+        return false;
+    }
+
+
+    //Builds and runs the Maven command, streaming its output to the console.
+    private MavenRun executeMaven(String projectRootPath, boolean withCoverage, boolean offline,
+                                  List<String> testClasses) throws Exception {
+        // Detect OS and prepare Maven command
+        List<String> mvnCommand = new ArrayList<>();
+        if (isWindows()) {
+            mvnCommand.addAll(List.of("cmd.exe", "/c"));
+        }
+        mvnCommand.add("mvn");
+        if (offline) {
+            mvnCommand.add("-o");
+        }
+        if (withCoverage) {
+            mvnCommand.add(JACOCO_PLUGIN + ":prepare-agent");
+        }
+        mvnCommand.add("test");
+        if (!testClasses.isEmpty()) {
+            // Modules without any of these classes must not fail the build
+            mvnCommand.add("-Dtest=" + String.join(",", testClasses));
+            mvnCommand.add("-Dsurefire.failIfNoSpecifiedTests=false");
+        }
+        if (withCoverage) {
+            mvnCommand.add(JACOCO_PLUGIN + ":report");
+        }
+
+        // Build process inside project root
+        ProcessBuilder processBuilder = new ProcessBuilder(mvnCommand);
+        processBuilder.directory(new File(projectRootPath)); // Set working dir where pom.xml exists
+        processBuilder.redirectErrorStream(true); // Combine stdout + stderr
+
+        LOGGER.info("🔨 Executing Maven command: {}", String.join(" ", mvnCommand));
+
+        // Start Maven process
+        Process process = processBuilder.start();
+
+        // Live read process output
+        boolean missedOfflineArtifact = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println(line);
+                if (offline && line.contains("in offline mode")) {
+                    missedOfflineArtifact = true;
+                }
+            }
+        }
+
+        // Wait for process to complete and capture exit code
+        int exitCode = process.waitFor();
+        return new MavenRun(exitCode, missedOfflineArtifact);
     }
 
     //Overloaded method to fallback to config-defined project root path if user doesn't provide.
-    public void runTests() {
-        runTests(config.getProjectRootPath());
+    public boolean runTests() {
+        return runTests(config.getProjectRootPath());
     }
 
     /*
@@ -78,4 +175,8 @@ public class TestValidator {
     private boolean isWindows() {
         return System.getProperty("os.name").toLowerCase().contains("win");
     }
+
+    //Exit code of a Maven run, and whether it failed because an artifact isn't available offline.
+    private record MavenRun(int exitCode, boolean missedOfflineArtifact) {
+    }
 }
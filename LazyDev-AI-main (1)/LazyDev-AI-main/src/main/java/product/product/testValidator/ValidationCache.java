@@ -0,0 +1,298 @@
+package product.product.testValidator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Element;
+import product.product.classpathResolver.ClasspathResolver;
+import product.product.configuration.Config;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+
+/*
+
+Role of this class :
+- Remembers which test classes passed, so TestValidator only runs the ones whose inputs changed since.
+- The test classes are the ones surefire runs by default (Test*, *Test, *Tests, *TestCase).
+- The inputs of a test class are its own source, the source of the class it targets (FooTest -> Foo)
+  and the resolved project classpath (SNAPSHOT jars and class folders with their file sizes and times).
+  Their SHA-256 is stored per test class after a green run.
+- Any change to one of the inputs gives a different hash, so the class runs again; a failing class is
+  dropped from the cache and runs every time until it is green.
+- Stored in .lazydev/validation-cache.properties (test class -> input hash).
+ */
+@Component
+public class ValidationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidationCache.class);
+
+    //Surefire's default includes, as prefix/suffixes of the simple class name.
+    private static final String TEST_PREFIX = "Test";
+    private static final List<String> TEST_SUFFIXES = List.of("TestCase", "Tests", "Test");
+
+    private final Config config;
+    private final ClasspathResolver classpathResolver;
+
+
+    public ValidationCache(Config config, ClasspathResolver classpathResolver) {
+        this.config = config;
+        this.classpathResolver = classpathResolver;
+    }
+
+
+    /*
+     - returns the fully qualified names of all test classes surefire runs by default under src/test/java.
+     - returns an empty list (cache not used, everything runs) if the pom configures its own surefire includes,
+       since -Dtest=<changed classes> would override them.
+     */
+    public List<String> findTestClasses(String projectRootPath) {
+        Path testRoot = Paths.get(projectRootPath, "src", "test", "java");
+        if (!Files.isDirectory(testRoot) || hasCustomSurefireIncludes(projectRootPath)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.walk(testRoot)) {
+            return files.filter(file -> isDefaultTestClass(file.getFileName().toString()))
+                    .map(file -> testRoot.relativize(file).toString()
+                            .replace(".java", "")
+                            .replace(File.separatorChar, '.'))
+                    .sorted()
+                    .toList();
+
+        } catch (IOException e) {
+            LOGGER.warn(" Failed to list test classes in {}: {}", testRoot, e.getMessage());
+            return List.of();
+        }
+    }
+
+
+    /*
+     - returns the test classes that have to run (test class -> hash of its current inputs).
+     - The others passed before with exactly these inputs and are only reported as cached.
+     */
+    public synchronized Map<String, String> staleTestClasses(String projectRootPath, List<String> testClasses) {
+        Properties cache = load(projectRootPath);
+        String classpathHash = classpathHash(projectRootPath);
+
+        Map<String, String> stale = new LinkedHashMap<>();
+        List<String> cached = new ArrayList<>();
+        for (String testClass : testClasses) {
+            String inputHash = inputHash(projectRootPath, testClass, classpathHash);
+            if (inputHash != null && inputHash.equals(cache.getProperty(testClass))) {
+                cached.add(testClass);
+            } else {
+                stale.put(testClass, inputHash);
+            }
+        }
+
+        if (!cached.isEmpty()) {
+            LOGGER.info(" {} test classes unchanged since their last green run (cached): {}", cached.size(), cached);
+        }
+        return stale;
+    }
+
+
+    /*
+     - Stores the outcome of a run over the given classes (test class -> input hash from staleTestClasses).
+     - If Maven failed, each class is judged by its own surefire report written during this run.
+     */
+    public synchronized void recordResults(String projectRootPath, Map<String, String> ranClasses,
+                                           boolean allPassed, long runStartMillis) {
+        Properties cache = load(projectRootPath);
+        for (Map.Entry<String, String> entry : ranClasses.entrySet()) {
+            String testClass = entry.getKey();
+            if (entry.getValue() != null && (allPassed || passedInReport(projectRootPath, testClass, runStartMillis))) {
+                cache.setProperty(testClass, entry.getValue());
+            } else {
+                cache.remove(testClass);
+            }
+        }
+        save(projectRootPath, cache);
+    }
+
+
+    //SHA-256 over the test source, the target class source (empty if there is none) and the classpath hash.
+    private String inputHash(String projectRootPath, String testClass, String classpathHash) {
+        try {
+            Path testFile = sourceFile(projectRootPath, "test", testClass);
+            Path targetFile = sourceFile(projectRootPath, "main", targetClassOf(testClass));
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Files.exists(testFile) ? Files.readAllBytes(testFile) : new byte[0]);
+            digest.update((byte) 0);
+            digest.update(Files.exists(targetFile) ? Files.readAllBytes(targetFile) : new byte[0]);
+            digest.update((byte) 0);
+            digest.update(classpathHash.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+
+        } catch (Exception e) {
+            LOGGER.warn(" Failed to hash inputs of {}: {}", testClass, e.getMessage());
+            return null;
+        }
+    }
+
+
+    /*
+     - SHA-256 over the classpath entries. A released jar is identified by its path, its content never changes.
+     - SNAPSHOT jars can be replaced under the same path, so their size and modification time are included,
+       and for folders (e.g. target/classes of other modules) the relative path, size and modification time of every file.
+     - The project's own target/classes is left out: it is rewritten on every compile and the sources behind it
+       are already part of each test class' inputs.
+     */
+    private String classpathHash(String projectRootPath) {
+        Path ownClasses = Paths.get(projectRootPath, "target", "classes").toAbsolutePath().normalize();
+        StringBuilder entries = new StringBuilder();
+        for (String entry : classpathResolver.resolve(projectRootPath)) {
+            entries.append(entry).append(File.pathSeparator);
+            Path path = Paths.get(entry).toAbsolutePath().normalize();
+            try {
+                if (Files.isDirectory(path) && !path.equals(ownClasses)) {
+                    try (Stream<Path> files = Files.walk(path)) {
+                        for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                            entries.append(path.relativize(file)).append(':').append(Files.size(file)).append(':')
+                                    .append(Files.getLastModifiedTime(file).toMillis()).append(File.pathSeparator);
+                        }
+                    }
+                } else if (Files.isRegularFile(path) && path.getFileName().toString().contains("SNAPSHOT")) {
+                    entries.append(Files.size(path)).append(':')
+                            .append(Files.getLastModifiedTime(path).toMillis()).append(File.pathSeparator);
+                }
+            } catch (IOException e) {
+                LOGGER.warn(" Failed to read classpath entry {}, running its tests: {}", entry, e.getMessage());
+                entries.append(System.nanoTime()); // never matches a cached hash
+            }
+        }
+        return hash(entries.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    //true if target/surefire-reports has a report for the class from this run without failures or errors.
+    private boolean passedInReport(String projectRootPath, String testClass, long runStartMillis) {
+        File report = Paths.get(projectRootPath, "target", "surefire-reports", "TEST-" + testClass + ".xml").toFile();
+        if (!report.isFile() || report.lastModified() < runStartMillis) {
+            return false; // not run (e.g. compilation failed) or a leftover of an earlier run
+        }
+        try {
+            Element suite = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(report).getDocumentElement();
+            return parseInt(suite.getAttribute("failures")) == 0 && parseInt(suite.getAttribute("errors")) == 0;
+
+        } catch (Exception e) {
+            LOGGER.warn(" Failed to read surefire report {}: {}", report, e.getMessage());
+            return false;
+        }
+    }
+
+
+    private boolean isDefaultTestClass(String fileName) {
+        if (!fileName.endsWith(".java") || fileName.contains("$")) {
+            return false;
+        }
+        String simpleName = fileName.substring(0, fileName.length() - ".java".length());
+        return simpleName.startsWith(TEST_PREFIX) || TEST_SUFFIXES.stream().anyMatch(simpleName::endsWith);
+    }
+
+
+    //FooTest, FooTests, FooTestCase and TestFoo all target Foo (same package).
+    private String targetClassOf(String testClass) {
+        int dot = testClass.lastIndexOf('.');
+        String packagePrefix = testClass.substring(0, dot + 1);
+        String simpleName = testClass.substring(dot + 1);
+        for (String suffix : TEST_SUFFIXES) {
+            if (simpleName.endsWith(suffix) && simpleName.length() > suffix.length()) {
+                return packagePrefix + simpleName.substring(0, simpleName.length() - suffix.length());
+            }
+        }
+        if (simpleName.startsWith(TEST_PREFIX) && simpleName.length() > TEST_PREFIX.length()) {
+            return packagePrefix + simpleName.substring(TEST_PREFIX.length());
+        }
+        return testClass;
+    }
+
+
+    //true if the project's pom declares surefire <includes> (the default test class set doesn't apply then).
+    private boolean hasCustomSurefireIncludes(String projectRootPath) {
+        Path pom = Paths.get(projectRootPath, "pom.xml");
+        try {
+            if (Files.exists(pom)) {
+                String content = Files.readString(pom, StandardCharsets.UTF_8);
+                int surefire = content.indexOf("maven-surefire-plugin");
+                if (surefire >= 0 && content.indexOf("<includes>", surefire) >= 0) {
+                    LOGGER.info(" Custom surefire includes in {}, validation cache not used.", pom);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn(" Failed to read {}: {}", pom, e.getMessage());
+            return true;
+        }
+        return false;
+    }
+
+
+    private Path sourceFile(String projectRootPath, String sourceSet, String className) {
+        return Paths.get(projectRootPath, "src", sourceSet, "java", className.replace('.', File.separatorChar) + ".java");
+    }
+
+
+    private Properties load(String projectRootPath) {
+        Properties cache = new Properties();
+        Path cacheFile = cachePath(projectRootPath);
+        if (Files.exists(cacheFile)) {
+            try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                cache.load(reader);
+            } catch (IOException e) {
+                LOGGER.warn(" Failed to read validation cache {}, running all tests: {}", cacheFile, e.getMessage());
+                cache.clear();
+            }
+        }
+        return cache;
+    }
+
+
+    private void save(String projectRootPath, Properties cache) {
+        Path cacheFile = cachePath(projectRootPath);
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+                cache.store(writer, "LazyDev validation cache: test class -> hash of test source, target source and classpath");
+            }
+        } catch (IOException e) {
+            LOGGER.warn(" Failed to write validation cache {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+
+    private String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+
+    private int parseInt(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+
+    private Path cachePath(String projectRootPath) {
+        Path path = Paths.get(config.getValidationCachePath());
+        return path.isAbsolute() ? path : Paths.get(projectRootPath).resolve(path);
+    }
+}
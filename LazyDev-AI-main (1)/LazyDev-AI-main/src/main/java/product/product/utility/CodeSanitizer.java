@@ -4,6 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 
 /*
 
@@ -23,6 +25,14 @@ public class CodeSanitizer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CodeSanitizer.class);
 
+    //Imports every generated test class needs (also added to existing test classes that lack them).
+    public static final List<String> TEST_IMPORTS = List.of(
+            "import org.junit.jupiter.api.Test;",
+            "import static org.junit.jupiter.api.Assertions.*;",
+            "import org.mockito.Mockito;",
+            "import static org.mockito.Mockito.*;"
+    );
+
     /*
     - Removes markdown formatting, unnecessary backticks, line breaks, whitespace.
     - Makes code ready to compile, especially test methods.
@@ -68,13 +78,8 @@ public class CodeSanitizer {
         }
 
         //Adding necessary imports for testing and mocking
-        builder.append("""
-                import org.junit.jupiter.api.Test;
-                import static org.junit.jupiter.api.Assertions.*;
-                import org.mockito.Mockito;
-                import static org.mockito.Mockito.*;
-
-                """);
+        TEST_IMPORTS.forEach(importLine -> builder.append(importLine).append("\n"));
+        builder.append("\n");
 
         //adding class definition
         builder.append("public class ").append(className).append(" {\n\n");
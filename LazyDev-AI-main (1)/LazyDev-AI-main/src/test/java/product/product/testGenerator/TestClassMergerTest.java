@@ -0,0 +1,58 @@
+package product.product.testGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestClassMergerTest {
+
+    @Test
+    void coversByName_acceptsTheMethodNameFollowedByASeparator() {
+        assertTrue(TestClassMerger.coversByName("testAdd", "add"));
+        assertTrue(TestClassMerger.coversByName("testAdd_x", "add"));
+        assertTrue(TestClassMerger.coversByName("testAdd2", "add"));
+        assertTrue(TestClassMerger.coversByName("add_returnsSum", "add"));
+        assertTrue(TestClassMerger.coversByName("addShouldThrowOnOverflow", "add"));
+        assertTrue(TestClassMerger.coversByName("testAddWhenEmpty", "add"));
+    }
+
+    @Test
+    void coversByName_rejectsLongerMethodNames() {
+        assertFalse(TestClassMerger.coversByName("testAddress", "add"));
+        assertFalse(TestClassMerger.coversByName("testAddAll", "add"));
+        assertFalse(TestClassMerger.coversByName("testAddOne", "add"));
+        assertTrue(TestClassMerger.coversByName("testAddAll", "addAll"));
+    }
+
+    @Test
+    void renameClashingTests_renamesOnlyAnnotatedTestMethods() {
+        String generated = """
+                @Test
+                @DisplayName("adds (positive) numbers")
+                public void testAdd() {
+                    Runnable task = new Runnable() {
+                        public void run() { }
+                    };
+                }
+
+                @ParameterizedTest(name = "{0}")
+                void testAdd(int value) { }
+
+                private void run() { }
+                """;
+        Set<String> takenNames = new HashSet<>(Set.of("testAdd", "run"));
+
+        String renamed = new TestClassMerger().renameClashingTests(generated, takenNames);
+
+        assertTrue(renamed.contains("public void testAdd_2() {"));
+        assertTrue(renamed.contains("void testAdd_3(int value)"));
+        assertTrue(renamed.contains("public void run() { }"));
+        assertTrue(renamed.contains("private void run() { }"));
+        assertEquals(Set.of("testAdd", "run", "testAdd_2", "testAdd_3"), takenNames);
+    }
+}